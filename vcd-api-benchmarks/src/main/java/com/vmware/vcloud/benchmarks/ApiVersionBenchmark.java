@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * vcd-api-benchmarks :: JMH benchmarks for the API tooling runtime
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vmware.vcloud.api.annotation.Supported;
+import com.vmware.vcloud.api.rest.version.ApiVersion;
+
+/**
+ * Benchmarks for version lookup, comparison and range operations of {@link ApiVersion}.
+ * <p>
+ * Inputs are held in non-final state fields so the JIT cannot constant-fold them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiVersionBenchmark {
+
+    @Supported(addedIn = "31.0", removedIn = "35.0")
+    private static Object boundedElement;
+
+    @Supported(addedIn = "VDC_COMPUTE_POLICIES")
+    private static Object aliasedElement;
+
+    private String versionString;
+    private String aliasString;
+    private String unknownString;
+    private Supported boundedRange;
+    private Supported aliasedRange;
+    private ApiVersion version;
+    private ApiVersion otherVersion;
+    private ApiVersion rangeMin;
+    private ApiVersion rangeMax;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        versionString = "33.0";
+        aliasString = "MAX_SUPPORTED";
+        unknownString = "99.9";
+        boundedRange = ApiVersionBenchmark.class.getDeclaredField("boundedElement").getAnnotation(Supported.class);
+        aliasedRange = ApiVersionBenchmark.class.getDeclaredField("aliasedElement").getAnnotation(Supported.class);
+        version = ApiVersion.VERSION_34_0;
+        otherVersion = ApiVersion.VERSION_33_0;
+        rangeMin = ApiVersion.VERSION_33_0;
+        rangeMax = ApiVersion.VERSION_35_0;
+    }
+
+    @Benchmark
+    public ApiVersion fromValueVersion() {
+        return ApiVersion.fromValue(versionString);
+    }
+
+    @Benchmark
+    public ApiVersion fromValueAlias() {
+        return ApiVersion.fromValue(aliasString);
+    }
+
+    @Benchmark
+    public boolean isValidApiVersion() {
+        return ApiVersion.isValidApiVersion(versionString);
+    }
+
+    @Benchmark
+    public boolean isValidApiVersionUnknown() {
+        return ApiVersion.isValidApiVersion(unknownString);
+    }
+
+    @Benchmark
+    public boolean isInRangeSupported() {
+        return version.isInRange(boundedRange);
+    }
+
+    @Benchmark
+    public boolean isInRangeSupportedAlias() {
+        return version.isInRange(aliasedRange);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return version.compareTo(otherVersion);
+    }
+
+    @Benchmark
+    public List<ApiVersion> getRange() {
+        return ApiVersion.getRange(rangeMin, rangeMax);
+    }
+
+    @Benchmark
+    public ApiVersion getPreviousVersion() {
+        return ApiVersion.getPreviousVersion(version);
+    }
+
+    @Benchmark
+    public ApiVersion[] values() {
+        return ApiVersion.values();
+    }
+
+    @Benchmark
+    public Set<String> getAllKeys() {
+        return ApiVersion.getAllKeys();
+    }
+}
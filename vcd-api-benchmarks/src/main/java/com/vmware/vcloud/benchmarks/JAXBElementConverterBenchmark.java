@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * vcd-api-benchmarks :: JMH benchmarks for the API tooling runtime
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vmware.vcloud.api.http.converters.JAXBElementConverter;
+
+/**
+ * Benchmarks for {@link JAXBElementConverter#convertToJAXBElement(Object)}, compared against
+ * invoking the same {@code ObjectFactory} method reflectively, as the converter used to, and
+ * directly; and for {@link JAXBElementConverter#convertAll(java.util.Collection)}, compared against
+ * converting the same values one at a time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JAXBElementConverterBenchmark {
+
+    private static final int BULK_SIZE = 1024;
+
+    private static final QName VAPP_QNAME = new QName("http://www.vmware.com/vcloud/v1.5", "VApp");
+
+    /**
+     * Stand-in for an xsd-generated type.
+     */
+    public static class VAppType {
+    }
+
+    /**
+     * Stand-in for an xsd-generated {@code ObjectFactory}.
+     */
+    public static class ObjectFactory {
+        public JAXBElement<VAppType> createVApp(VAppType value) {
+            return new JAXBElement<>(VAPP_QNAME, VAppType.class, null, value);
+        }
+    }
+
+    private JAXBElementConverter converter;
+    private ObjectFactory objectFactory;
+    private Method factoryMethod;
+    private VAppType value;
+    private List<VAppType> values;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectFactory = new ObjectFactory();
+        converter = new JAXBElementConverter(Collections.<Object>singletonList(objectFactory));
+        factoryMethod = ObjectFactory.class.getMethod("createVApp", VAppType.class);
+        value = new VAppType();
+        values = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            values.add(new VAppType());
+        }
+    }
+
+    @Benchmark
+    public JAXBElement<?> convertToJAXBElement() throws Exception {
+        return converter.convertToJAXBElement(value);
+    }
+
+    @Benchmark
+    public JAXBElement<?> reflectiveInvoke() throws Exception {
+        return (JAXBElement<?>) factoryMethod.invoke(objectFactory, value);
+    }
+
+    @Benchmark
+    public JAXBElement<?> directCall() {
+        return objectFactory.createVApp(value);
+    }
+
+    @Benchmark
+    public List<JAXBElement<?>> convertAll() throws Exception {
+        return converter.convertAll(values);
+    }
+
+    @Benchmark
+    public List<JAXBElement<?>> convertEach() throws Exception {
+        final List<JAXBElement<?>> result = new ArrayList<>();
+        for (VAppType v : values) {
+            result.add(converter.convertToJAXBElement(v));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * vcd-api-benchmarks :: JMH benchmarks for the API tooling runtime
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vmware.vcloud.api.enums.NameVersionHolder;
+import com.vmware.vcloud.api.rest.version.ApiVersion;
+import com.vmware.vcloud.api.rest.version.Supported;
+
+/**
+ * Benchmarks for {@link NameVersionHolder#fromValue(String)}, as used by generated enums, both
+ * from a single thread and contended by as many threads as there are processors, with the holder
+ * both mutable and {@linkplain NameVersionHolder#freeze() frozen}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameVersionHolderBenchmark {
+
+    /**
+     * Stand-in for a generated enum, shaped like a typical status type.
+     */
+    public enum Status implements Supported {
+        UNRESOLVED("UNRESOLVED"),
+        RESOLVED("RESOLVED"),
+        DEPLOYED("DEPLOYED"),
+        SUSPENDED("SUSPENDED"),
+        POWERED_ON("POWERED_ON"),
+        WAITING_FOR_INPUT("WAITING_FOR_INPUT"),
+        UNKNOWN("UNKNOWN"),
+        UNRECOGNIZED("UNRECOGNIZED"),
+        POWERED_OFF("POWERED_OFF"),
+        INCONSISTENT_STATE("INCONSISTENT_STATE"),
+        MIXED("MIXED");
+
+        private static final NameVersionHolder<Status> VALUES = new NameVersionHolder<>();
+        private static final NameVersionHolder<Status> FROZEN_VALUES = new NameVersionHolder<>();
+
+        static {
+            for (Status status : values()) {
+                VALUES.put(status.value, status);
+                FROZEN_VALUES.put(status.value, status);
+            }
+            FROZEN_VALUES.freeze();
+        }
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public ApiVersion getAddedIn() {
+            return ApiVersion.VERSION_33_0;
+        }
+
+        @Override
+        public ApiVersion getRemovedIn() {
+            return ApiVersion.VERSION_MAX;
+        }
+
+        public static Status fromValue(String value) {
+            return VALUES.fromValue(value);
+        }
+
+        public static Status fromValueFrozen(String value) {
+            return FROZEN_VALUES.fromValue(value);
+        }
+
+        public static Status fromValueFrozen(char[] buffer, int offset, int length) {
+            return FROZEN_VALUES.fromValue(buffer, offset, length);
+        }
+    }
+
+    private String key;
+    private String missingKey;
+    private char[] buffer;
+
+    @Setup
+    public void setUp() {
+        // A fresh copy, so lookups cannot short-circuit on reference equality with the stored key
+        key = new String("POWERED_ON");
+        missingKey = "POWERED_DOWN";
+        // As held in the text buffer of a parser, amongst the surrounding document
+        buffer = "{\"status\":\"POWERED_ON\"}".toCharArray();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueSingleThreaded() {
+        return Status.fromValue(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueMissSingleThreaded() {
+        return Status.fromValue(missingKey);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Status fromValueContended() {
+        return Status.fromValue(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueFrozenSingleThreaded() {
+        return Status.fromValueFrozen(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueFrozenMissSingleThreaded() {
+        return Status.fromValueFrozen(missingKey);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueFrozenCharsSingleThreaded() {
+        return Status.fromValueFrozen(buffer, 11, 10);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Status fromValueFrozenCharsViaStringSingleThreaded() {
+        return Status.fromValueFrozen(new String(buffer, 11, 10));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Status fromValueFrozenContended() {
+        return Status.fromValueFrozen(key);
+    }
+}
@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.enums;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the outcomes of resolving enum values through {@link NameVersionHolder}, per enum type:
+ * values which resolved, values which are unknown and known values which were rejected for the
+ * version of the caller, either by a validator or by
+ * {@link NameVersionHolder#fromValue(String, com.vmware.vcloud.api.rest.version.ApiVersion)}.
+ * Unknown values count as misses whether or not a validator rejects them.
+ * <p>
+ * Counting is enabled by setting the {@value #ENABLED_PROPERTY} system property to {@code true}
+ * before this class is loaded. The flag is a constant, so while disabled lookups carry no more than
+ * a branch the JIT compiler eliminates. Counters are striped, so enabled counting does not contend
+ * between threads either.
+ *
+ * @since 10.2.2
+ */
+public final class EnumTelemetry {
+
+    /**
+     * System property enabling telemetry
+     */
+    public static final String ENABLED_PROPERTY = "com.vmware.vcloud.api.enums.telemetry";
+
+    static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Counters by enum type name; names rather than classes are used as keys so as not to pin
+     * class loaders
+     */
+    private static final ConcurrentMap<String, Counters> COUNTERS = new ConcurrentHashMap<>();
+
+    private EnumTelemetry() {
+    }
+
+    /**
+     * @return {@code true} if telemetry is being collected
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the outcomes counted so far, by enum type name
+     */
+    public static Map<String, Outcomes> snapshot() {
+        final Map<String, Outcomes> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : COUNTERS.entrySet()) {
+            final Counters counters = entry.getValue();
+            snapshot.put(entry.getKey(), new Outcomes(counters.hits.sum(), counters.misses.sum(),
+                    counters.versionRejected.sum()));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Resets all counters to zero. Outcomes counted concurrently may or may not be retained.
+     */
+    public static void reset() {
+        for (Counters counters : COUNTERS.values()) {
+            counters.hits.reset();
+            counters.misses.reset();
+            counters.versionRejected.reset();
+        }
+    }
+
+    static Counters countersFor(String type) {
+        return COUNTERS.computeIfAbsent(type, t -> new Counters());
+    }
+
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder versionRejected = new LongAdder();
+    }
+
+    /**
+     * Outcomes counted for an enum type.
+     */
+    public static final class Outcomes {
+        private final long hits;
+        private final long misses;
+        private final long versionRejected;
+
+        Outcomes(long hits, long misses, long versionRejected) {
+            this.hits = hits;
+            this.misses = misses;
+            this.versionRejected = versionRejected;
+        }
+
+        /**
+         * @return the number of values which resolved
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of values which are unknown
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the number of values which were rejected for the version of the caller
+         */
+        public long getVersionRejected() {
+            return versionRejected;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", versionRejected=" + versionRejected;
+        }
+    }
+}
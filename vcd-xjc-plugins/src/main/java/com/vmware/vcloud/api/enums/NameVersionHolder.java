@@ -30,23 +30,54 @@
 package com.vmware.vcloud.api.enums;
 
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
+import com.vmware.vcloud.api.rest.version.ApiVersion;
 import com.vmware.vcloud.api.rest.version.Supported;
 
 /**
  * A class which allows validation of {@link String} to {@code Enum} conversions.
+ * <p>
+ * Values are registered through {@link #put(String, Supported)}, typically from the static
+ * initializer of the enum, after which the holder should be {@link #freeze() frozen}. A frozen
+ * holder resolves keys through an immutable open-addressing table, which is safe to read from any
+ * thread, and no longer accepts new values.
  */
 public class NameVersionHolder<T extends Supported> {
 
     /*
-     * Do not use this under ordinary circumstances
+     * Do not use this under ordinary circumstances. Install it through setDefaultEnumValidator:
+     * holders frozen before the field is assigned directly keep the validator they captured.
      */
     protected static volatile EnumValidator<Supported> DEFAULT_ENUM_VALIDATOR = null;
 
+    /*
+     * Frozen holders, whose tables are rebuilt with the new validator when one is installed through
+     * setDefaultEnumValidator; guarded by itself. Holders are compared by identity.
+     */
+    private static final Set<NameVersionHolder<?>> FROZEN_HOLDERS =
+            Collections.newSetFromMap(new WeakHashMap<NameVersionHolder<?>, Boolean>());
+
     private final Map<String, T> cachedValues = new HashMap<String, T>();
 
+    /*
+     * Deliberately not volatile: the table only has final fields, so it is safely published even
+     * when read through a race, and readers which have not observed it yet fall back to the map,
+     * which is no longer modified once frozen.
+     */
+    private FrozenTable<T> frozen;
+
+    /*
+     * Name of the enum type, as taken from the first value put, and its telemetry counters; the
+     * counters are looked up on first use and only while telemetry is enabled.
+     */
+    private String typeName;
+    private EnumTelemetry.Counters counters;
+
     /**
      * Associate the <code>key</code> string with the given <code>typeValue</code>.
      *
@@ -55,13 +86,88 @@ public class NameVersionHolder<T extends Supported> {
      * @return the result of the operation.
      */
     public final T put(String key, T typeValue) {
+        if (frozen != null) {
+            throw new IllegalStateException("Cannot add " + key + " to a frozen NameVersionHolder");
+        }
+        if (typeName == null && typeValue != null) {
+            typeName = typeValue instanceof Enum
+                    ? ((Enum<?>) typeValue).getDeclaringClass().getName()
+                    : typeValue.getClass().getName();
+        }
         return cachedValues.put(key, typeValue);
     }
 
     public final boolean contains(String v) {
+        final FrozenTable<T> table = frozen;
+        if (table != null) {
+            return v != null && table.get(v) != null;
+        }
         return cachedValues.containsKey(v);
     }
 
+    /**
+     * Makes this holder immutable, building the table keys are resolved through from then on.
+     * Subsequent calls have no effect.
+     * <p>
+     * The {@link #DEFAULT_ENUM_VALIDATOR} is captured by the table, so that lookups do not read it
+     * while none is installed. A validator installed through
+     * {@link #setDefaultEnumValidator(EnumValidator)} is captured again by every frozen holder.
+     * Subclasses overriding {@link #validateValue(String, Supported)} are still called on every
+     * lookup.
+     *
+     * @return this holder
+     */
+    public final NameVersionHolder<T> freeze() {
+        synchronized (FROZEN_HOLDERS) {
+            if (frozen == null) {
+                frozen = new FrozenTable<>(cachedValues, overridesValidateValue(), DEFAULT_ENUM_VALIDATOR);
+                FROZEN_HOLDERS.add(this);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Installs the default validator for all holders, including those already
+     * {@link #freeze() frozen}. Lookups on other threads are guaranteed to observe the new
+     * validator once they have synchronized with the caller, so it should be installed before
+     * serving requests.
+     *
+     * @param validator
+     *          the validator, or {@code null} to validate nothing.
+     */
+    protected static void setDefaultEnumValidator(EnumValidator<Supported> validator) {
+        synchronized (FROZEN_HOLDERS) {
+            DEFAULT_ENUM_VALIDATOR = validator;
+            for (NameVersionHolder<?> holder : FROZEN_HOLDERS) {
+                holder.recapture(validator);
+            }
+        }
+    }
+
+    private void recapture(EnumValidator<Supported> validator) {
+        frozen = frozen.withValidator(validator);
+    }
+
+    /**
+     * @return {@code true} if this holder has been {@link #freeze() frozen}
+     */
+    public final boolean isFrozen() {
+        return frozen != null;
+    }
+
+    private boolean overridesValidateValue() {
+        for (Class<?> c = getClass(); c != NameVersionHolder.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("validateValue", String.class, Supported.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared at this level
+            }
+        }
+        return false;
+    }
+
     /**
      * Resolves the passed string <code>key</code> to an enum <code>T</code>
      *
@@ -75,9 +181,192 @@ public class NameVersionHolder<T extends Supported> {
             return null;
         }
 
+        final FrozenTable<T> table = frozen;
+        if (table != null) {
+            return validated(table, key, table.get(key));
+        }
+
         final T t = cachedValues.get(key);
 
-        return validateValue(key, t);
+        return validated(null, key, t);
+    }
+
+    /**
+     * Resolves the key held in the given region of a character buffer, such as the text buffer of a
+     * JSON or XML parser, to an enum <code>T</code>. This is equivalent to
+     * {@link #fromValue(String)} with the key as a {@code String}, but once this holder is
+     * {@link #freeze() frozen} the key is compared in place and no {@code String} is created for
+     * it.
+     *
+     * @param key
+     *          buffer holding the key.
+     * @param offset
+     *          index of the first character of the key.
+     * @param length
+     *          number of characters of the key.
+     * @return a <code>T</code> associated with the given <code>key</code>.
+     * @throws IndexOutOfBoundsException if the region lies outside of the buffer
+     */
+    public final T fromValue(char[] key, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > key.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", buffer " + key.length);
+        }
+
+        final FrozenTable<T> table = frozen;
+        if (table == null) {
+            return fromValue(new String(key, offset, length));
+        }
+        final int i = table.indexOf(key, offset, length);
+        if (i >= 0) {
+            return validated(table, table.keys[i], table.valueAt(i));
+        }
+        return validated(table, table.validates() ? new String(key, offset, length) : null, null);
+    }
+
+    /**
+     * Resolves the passed character sequence <code>key</code> to an enum <code>T</code>. This is
+     * equivalent to {@link #fromValue(String)} with the key as a {@code String}, but once this
+     * holder is {@link #freeze() frozen} the key is compared in place and no {@code String} is
+     * created for it.
+     *
+     * @param key
+     *          the character sequence key to resolve the enum.
+     * @return a <code>T</code> associated with the given <code>key</code>.
+     */
+    public final T fromValue(CharSequence key) {
+        if (key == null) {
+            return null;
+        }
+        if (key instanceof String) {
+            return fromValue((String) key);
+        }
+
+        final FrozenTable<T> table = frozen;
+        if (table == null) {
+            return fromValue(key.toString());
+        }
+        final int i = table.indexOf(key);
+        if (i >= 0) {
+            return validated(table, table.keys[i], table.valueAt(i));
+        }
+        return validated(table, table.validates() ? key.toString() : null, null);
+    }
+
+    /**
+     * Validates the outcome of a lookup, counting it if {@link EnumTelemetry} is enabled.
+     *
+     * @param table
+     *          the table the value was looked up in, or {@code null} if this holder is not frozen.
+     * @param key
+     *          the key; callers not holding it as a {@code String} pass the stored key on hits and
+     *          only create one on misses if the table {@linkplain FrozenTable#validates()
+     *          validates} lookups.
+     * @param t
+     *          the value looked up, if any.
+     */
+    private T validated(FrozenTable<T> table, String key, T t) {
+        if (!EnumTelemetry.ENABLED) {
+            return validate(table, key, t);
+        }
+
+        final EnumTelemetry.Counters counters = counters();
+        final T value;
+        try {
+            value = validate(table, key, t);
+        } catch (RuntimeException e) {
+            // Only a known value can be rejected for its version; rejecting an unknown key is a miss
+            (t != null ? counters.versionRejected : counters.misses).increment();
+            throw e;
+        }
+        (value == null ? counters.misses : counters.hits).increment();
+        return value;
+    }
+
+    private T validate(FrozenTable<T> table, String key, T t) {
+        if (table == null || table.validateValue) {
+            return validateValue(key, t);
+        }
+        final EnumValidator<Supported> validator = table.validator;
+        if (validator != null) {
+            validator.validate(key, t);
+        }
+        return t;
+    }
+
+    private EnumTelemetry.Counters counters() {
+        EnumTelemetry.Counters c = counters;
+        if (c == null) {
+            // Racing threads obtain the same instance
+            c = EnumTelemetry.countersFor(typeName != null ? typeName : getClass().getName());
+            counters = c;
+        }
+        return c;
+    }
+
+    /**
+     * Resolves the passed string <code>key</code> to an enum <code>T</code> supported in the given
+     * version, that is from its {@link Supported#getAddedIn() addedIn} version included to its
+     * {@link Supported#getRemovedIn() removedIn} version excluded.
+     * <p>
+     * Unlike {@link #fromValue(String)}, this does not consult the {@link #DEFAULT_ENUM_VALIDATOR}.
+     * Once this holder is {@link #freeze() frozen}, the range of every value is precomputed, so
+     * the check is a comparison of ordinals.
+     *
+     * @param key
+     *          the string value key to resolve the enum.
+     * @param version
+     *          the version the value must be supported in.
+     * @return a <code>T</code> associated with the given <code>key</code>, or {@code null} if
+     *          <code>key</code> is {@code null}.
+     * @throws IllegalArgumentException if no value is associated with the key or if the value is
+     *          not supported in the given version
+     */
+    public final T fromValue(String key, ApiVersion version) {
+        if (key == null) {
+            return null;
+        }
+
+        final FrozenTable<T> table = frozen;
+        final T t;
+        final long range;
+        if (table != null) {
+            final int i = table.indexOf(key);
+            t = i < 0 ? null : table.valueAt(i);
+            range = i < 0 ? 0 : table.ranges[i];
+        } else {
+            t = cachedValues.get(key);
+            range = t == null ? 0 : range(t);
+        }
+
+        if (t == null) {
+            if (EnumTelemetry.ENABLED) {
+                counters().misses.increment();
+            }
+            throw new IllegalArgumentException("Unknown value: " + key);
+        }
+        final int ordinal = version.ordinal();
+        if (ordinal < (int) (range >>> 32) || ordinal >= (int) range) {
+            if (EnumTelemetry.ENABLED) {
+                counters().versionRejected.increment();
+            }
+            throw new IllegalArgumentException("Value " + key + " is not supported in API version " + version);
+        }
+        if (EnumTelemetry.ENABLED) {
+            counters().hits.increment();
+        }
+        return t;
+    }
+
+    /**
+     * @return the ordinal of the version the value was added in in the high and that of the
+     *         version it was removed in in the low 32 bits; unset bounds are unbounded
+     */
+    private static long range(Supported value) {
+        final ApiVersion addedIn = value.getAddedIn();
+        final ApiVersion removedIn = value.getRemovedIn();
+        final int from = addedIn == null ? 0 : addedIn.ordinal();
+        final int to = removedIn == null ? ApiVersion.VERSION_MAX.ordinal() : removedIn.ordinal();
+        return (long) from << 32 | to;
     }
 
     /*
@@ -92,4 +381,168 @@ public class NameVersionHolder<T extends Supported> {
 
         return value;
     }
+
+    /**
+     * Immutable open-addressing hash table over the keys of a frozen holder. Enums have few
+     * constants, so the table is kept at most half full and a lookup typically compares a single
+     * key.
+     */
+    private static final class FrozenTable<T> {
+        final String[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        /**
+         * Supported range of each value, as computed by {@link NameVersionHolder#range(Supported)}
+         */
+        final long[] ranges;
+
+        /**
+         * Whether lookups have to go through an overridden {@code validateValue}
+         */
+        final boolean validateValue;
+
+        /**
+         * The {@link NameVersionHolder#DEFAULT_ENUM_VALIDATOR} when this table was built
+         */
+        final EnumValidator<Supported> validator;
+
+        FrozenTable(Map<String, ?> entries, boolean validateValue, EnumValidator<Supported> validator) {
+            int capacity = 2;
+            while (capacity < entries.size() * 2) {
+                capacity <<= 1;
+            }
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+            this.ranges = new long[capacity];
+            this.mask = capacity - 1;
+            this.validateValue = validateValue;
+            this.validator = validator;
+
+            for (Map.Entry<String, ?> entry : entries.entrySet()) {
+                if (entry.getKey() == null) {
+                    continue;
+                }
+                int i = spread(entry.getKey().hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = entry.getKey();
+                values[i] = entry.getValue();
+                if (entry.getValue() != null) {
+                    ranges[i] = range((Supported) entry.getValue());
+                }
+            }
+        }
+
+        private FrozenTable(FrozenTable<T> table, EnumValidator<Supported> validator) {
+            this.keys = table.keys;
+            this.values = table.values;
+            this.ranges = table.ranges;
+            this.mask = table.mask;
+            this.validateValue = table.validateValue;
+            this.validator = validator;
+        }
+
+        /**
+         * @return a table sharing the entries of this one, with the given validator
+         */
+        FrozenTable<T> withValidator(EnumValidator<Supported> validator) {
+            return new FrozenTable<>(this, validator);
+        }
+
+        /**
+         * @return {@code true} if lookups have to be validated
+         */
+        boolean validates() {
+            return validateValue || validator != null;
+        }
+
+        T get(String key) {
+            final int i = indexOf(key);
+            return i < 0 ? null : valueAt(i);
+        }
+
+        /**
+         * @return the slot holding the key, or {@code -1} if there is none
+         */
+        int indexOf(String key) {
+            int i = spread(key.hashCode()) & mask;
+            String k;
+            while ((k = keys[i]) != null) {
+                if (k == key || k.equals(key)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * @return the slot holding the key in the given region of the buffer, or {@code -1} if
+         *         there is none
+         */
+        int indexOf(char[] key, int offset, int length) {
+            int h = 0;
+            for (int j = offset; j < offset + length; j++) {
+                h = 31 * h + key[j];
+            }
+            int i = spread(h) & mask;
+            String k;
+            while ((k = keys[i]) != null) {
+                if (k.length() == length && regionMatches(k, key, offset)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * @return the slot holding the key, or {@code -1} if there is none
+         */
+        int indexOf(CharSequence key) {
+            final int length = key.length();
+            int h = 0;
+            for (int j = 0; j < length; j++) {
+                h = 31 * h + key.charAt(j);
+            }
+            int i = spread(h) & mask;
+            String k;
+            while ((k = keys[i]) != null) {
+                if (k.length() == length && regionMatches(k, key)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static boolean regionMatches(String k, char[] key, int offset) {
+            for (int j = 0; j < k.length(); j++) {
+                if (k.charAt(j) != key[offset + j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean regionMatches(String k, CharSequence key) {
+            for (int j = 0; j < k.length(); j++) {
+                if (k.charAt(j) != key.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        T valueAt(int i) {
+            return (T) values[i];
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
 }
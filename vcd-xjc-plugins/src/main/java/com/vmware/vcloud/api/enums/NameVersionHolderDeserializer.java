@@ -0,0 +1,84 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.enums;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.vmware.vcloud.api.rest.version.Supported;
+
+/**
+ * Deserializes enums resolved through a {@link NameVersionHolder} straight from the text buffer of
+ * the parser, without creating a {@code String} for every value.
+ * <p>
+ * Values unknown to the holder are reported through
+ * {@link DeserializationContext#handleWeirdStringValue(Class, String, String, Object...)}, so
+ * configured problem handlers apply.
+ *
+ * @param <T> type of the enum
+ */
+public class NameVersionHolderDeserializer<T extends Supported> extends StdDeserializer<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient NameVersionHolder<T> holder;
+
+    /**
+     * @param type the enum type
+     * @param holder the holder resolving values of that type, preferably {@linkplain
+     *            NameVersionHolder#freeze() frozen}
+     */
+    public NameVersionHolderDeserializer(Class<T> type, NameVersionHolder<T> holder) {
+        super(type);
+        this.holder = holder;
+    }
+
+    @Override
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.hasToken(JsonToken.VALUE_STRING)) {
+            @SuppressWarnings("unchecked")
+            final T value = (T) ctxt.handleUnexpectedToken(handledType(), p);
+            return value;
+        }
+
+        final T value = holder.fromValue(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        if (value != null) {
+            return value;
+        }
+
+        @SuppressWarnings("unchecked")
+        final T handled = (T) ctxt.handleWeirdStringValue(handledType(), p.getText(),
+                "not one of the values accepted for %s", handledType().getSimpleName());
+        return handled;
+    }
+}
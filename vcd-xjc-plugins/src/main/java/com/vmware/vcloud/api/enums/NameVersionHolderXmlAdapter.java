@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.enums;
+
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+import com.vmware.vcloud.api.rest.version.Supported;
+
+/**
+ * Maps enums resolved through a {@link NameVersionHolder} to and from their string value in XML.
+ * <p>
+ * JAXB hands adapters a {@code String}, so unlike {@link NameVersionHolderDeserializer} this cannot
+ * avoid creating one per value; values are however resolved through the holder, and trimmed
+ * without copying unless they have surrounding whitespace.
+ *
+ * @param <T> type of the enum
+ */
+public abstract class NameVersionHolderXmlAdapter<T extends Supported> extends XmlAdapter<String, T> {
+
+    private final NameVersionHolder<T> holder;
+
+    /**
+     * @param holder the holder resolving values of the adapted type, preferably {@linkplain
+     *            NameVersionHolder#freeze() frozen}
+     */
+    protected NameVersionHolderXmlAdapter(NameVersionHolder<T> holder) {
+        this.holder = holder;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not known to the holder
+     */
+    @Override
+    public T unmarshal(String v) {
+        if (v == null) {
+            return null;
+        }
+        final T value = holder.fromValue(v.trim());
+        if (value == null) {
+            throw new IllegalArgumentException(v);
+        }
+        return value;
+    }
+
+    @Override
+    public String marshal(T v) {
+        return v == null ? null : valueOf(v);
+    }
+
+    /**
+     * @param v the enum
+     * @return the string value of the enum, as known to the holder
+     */
+    protected abstract String valueOf(T v);
+}
@@ -29,12 +29,27 @@
 
 package com.vmware.vcloud.api.http.converters;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.bind.JAXBElement;
 
@@ -44,28 +59,269 @@ import javax.xml.bind.JAXBElement;
  */
 public class JAXBElementConverter {
 
+    /**
+     * Minimum number of values for which {@link #convertAll(Spliterator)} converts in parallel
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Invokes a factory method on an {@code ObjectFactory}.
+     * <p>
+     * The method is bound on its first invocation rather than when it is indexed, so that indexing
+     * all factory methods spins no classes for types which are never converted. Where possible the
+     * method is bound to its factory as a {@link Function} spun by
+     * {@link LambdaMetafactory}, which the JIT compiler inlines like a direct call. That requires
+     * the factory class to be visible from the class loader of this class; otherwise the bound
+     * {@link MethodHandle} is invoked, and only if the method cannot be unreflected at all is it
+     * invoked reflectively. Either way exceptions thrown by the factory method are reported
+     * wrapped in an {@link InvocationTargetException}, as {@link Method#invoke} does.
+     */
     private static class ObjectFactoryInvocation {
+        /**
+         * Cached for types for which no factory method accepts the type or any of its
+         * superclasses, so that those fail without scanning all factories again
+         */
+        static final ObjectFactoryInvocation NONE = new ObjectFactoryInvocation(null, null);
+
+        /**
+         * Bound in place of methods which cannot be unreflected, to be invoked reflectively
+         */
+        private static final Function<Object, JAXBElement<?>> REFLECTIVE = value -> {
+            throw new UnsupportedOperationException();
+        };
+
         final Object objectFactory;
         final Method factoryMethod;
 
+        /**
+         * The bound method, {@code null} until first invoked; racing threads may each bind it
+         */
+        private volatile Function<Object, JAXBElement<?>> function;
+
         ObjectFactoryInvocation(Object objectFactory, Method factoryMethod) {
             this.objectFactory = objectFactory;
             this.factoryMethod = factoryMethod;
         }
 
         public JAXBElement<?> convert(Object value) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-            return (JAXBElement<?>) factoryMethod.invoke(objectFactory, value);
+            Function<Object, JAXBElement<?>> function = this.function;
+            if (function == null) {
+                function = bind(objectFactory, factoryMethod);
+                this.function = function;
+            }
+            if (function == REFLECTIVE) {
+                return (JAXBElement<?>) factoryMethod.invoke(objectFactory, value);
+            }
+            try {
+                return function.apply(value);
+            } catch (RuntimeException | Error e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        /**
+         * @return the factory method bound to the factory, or {@link #REFLECTIVE} if it cannot be
+         *         unreflected
+         */
+        @SuppressWarnings("unchecked")
+        private static Function<Object, JAXBElement<?>> bind(Object objectFactory, Method factoryMethod) {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle target;
+            try {
+                target = lookup.unreflect(factoryMethod);
+            } catch (IllegalAccessException e) {
+                return REFLECTIVE;
+            }
+
+            final Class<?> factoryClass = factoryMethod.getDeclaringClass();
+            if (isVisible(factoryClass)) {
+                try {
+                    final CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                            MethodType.methodType(Function.class, factoryClass),
+                            MethodType.methodType(Object.class, Object.class),
+                            target,
+                            MethodType.methodType(factoryMethod.getReturnType(), factoryMethod.getParameterTypes()[0]));
+                    return (Function<Object, JAXBElement<?>>) site.getTarget().invoke(objectFactory);
+                } catch (Throwable e) {
+                    // Fall back to the method handle
+                }
+            }
+
+            final MethodHandle bound = target.bindTo(objectFactory)
+                    .asType(MethodType.methodType(JAXBElement.class, Object.class));
+            return value -> {
+                try {
+                    return (JAXBElement<?>) bound.invokeExact(value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    // Factory methods declare no checked exceptions
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        /**
+         * The class spun by {@link LambdaMetafactory} links against the factory class from the
+         * class loader of this class, so the factory class must resolve to the same class from it
+         */
+        private static boolean isVisible(Class<?> factoryClass) {
+            try {
+                return Class.forName(factoryClass.getName(), false, JAXBElementConverter.class.getClassLoader())
+                        == factoryClass;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
         }
     }
 
 
     private final List<Object> objectFactories;
 
-    private static final ConcurrentMap<Class<?>, ObjectFactoryInvocation> jaxbFactoryMethods =
+    /**
+     * Factory methods by the type they are declared to accept, resolved from
+     * {@link #objectFactories} on first use or by {@link #warmUp()}. Those types are loaded
+     * alongside the factories this instance references anyway, so holding them does not pin any
+     * additional class loader.
+     */
+    private final ConcurrentMap<Class<?>, ObjectFactoryInvocation> jaxbFactoryMethods =
             new ConcurrentHashMap<>();
 
+    /**
+     * Factory methods by the concrete type of the values converted, which may be subclasses of the
+     * types the methods are declared to accept; {@link ObjectFactoryInvocation#NONE} if there is
+     * no such method. Held by the classes themselves rather than by this instance, so that caching
+     * them does not prevent their class loaders from being collected.
+     */
+    private final ClassValue<ObjectFactoryInvocation> invocations = new ClassValue<ObjectFactoryInvocation>() {
+        @Override
+        protected ObjectFactoryInvocation computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                final ObjectFactoryInvocation invocation = getDeclaredConverter(c);
+                if (invocation != null) {
+                    return invocation;
+                }
+            }
+            return ObjectFactoryInvocation.NONE;
+        }
+    };
+
+    private volatile WarmUpStats warmUpStats;
+
     public JAXBElementConverter(final List<Object> objectFactories) {
+        this(objectFactories, false);
+    }
+
+    /**
+     * @param objectFactories
+     *            the {@code ObjectFactory}s to convert through
+     * @param eager
+     *            whether to index all factory methods while constructing, as per {@link #warmUp()},
+     *            rather than to look them up as types are first converted
+     */
+    public JAXBElementConverter(final List<Object> objectFactories, boolean eager) {
         this.objectFactories = new ArrayList<>(objectFactories);
+        if (eager) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Indexes the factory methods of all {@code ObjectFactory}s in a single pass, so that no
+     * conversion has to look them up. Factories are scanned in parallel; where more than one
+     * factory method accepts a type, the one found first by a lazy lookup is kept, as if the types
+     * had been converted one at a time. Methods are only indexed, and are still bound as their
+     * types are first converted.
+     * <p>
+     * Only the first call indexes; subsequent calls return its outcome.
+     *
+     * @return the number of types indexed and the time it took
+     */
+    public synchronized WarmUpStats warmUp() {
+        if (warmUpStats != null) {
+            return warmUpStats;
+        }
+
+        final long start = System.nanoTime();
+
+        final List<Map<Class<?>, ObjectFactoryInvocation>> perFactory =
+                (objectFactories.size() > 1 ? objectFactories.parallelStream() : objectFactories.stream())
+                        .map(JAXBElementConverter::indexFactory)
+                        .collect(Collectors.toList());
+
+        int mappings = 0;
+        for (Map<Class<?>, ObjectFactoryInvocation> index : perFactory) {
+            for (Map.Entry<Class<?>, ObjectFactoryInvocation> entry : index.entrySet()) {
+                if (jaxbFactoryMethods.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                    mappings++;
+                }
+            }
+        }
+
+        final WarmUpStats stats = new WarmUpStats(objectFactories.size(), mappings, System.nanoTime() - start);
+        warmUpStats = stats;
+        return stats;
+    }
+
+    /**
+     * @return the outcome of {@link #warmUp()}, or {@code null} if it has not been called
+     */
+    public WarmUpStats getWarmUpStats() {
+        return warmUpStats;
+    }
+
+    /**
+     * @return the factory methods of the factory by the type they accept, keeping the one
+     *         {@link ObjectFactoryMethods} prefers for each type
+     */
+    private static Map<Class<?>, ObjectFactoryInvocation> indexFactory(Object factory) {
+        final Map<Class<?>, ObjectFactoryInvocation> index = new LinkedHashMap<>();
+        for (Method m : ObjectFactoryMethods.of(factory.getClass())) {
+            index.putIfAbsent(m.getParameterTypes()[0], new ObjectFactoryInvocation(factory, m));
+        }
+        return index;
+    }
+
+    /**
+     * Outcome of {@link JAXBElementConverter#warmUp()}.
+     */
+    public static final class WarmUpStats {
+        private final int factoryCount;
+        private final int mappingCount;
+        private final long durationNanos;
+
+        WarmUpStats(int factoryCount, int mappingCount, long durationNanos) {
+            this.factoryCount = factoryCount;
+            this.mappingCount = mappingCount;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * @return the number of {@code ObjectFactory}s scanned
+         */
+        public int getFactoryCount() {
+            return factoryCount;
+        }
+
+        /**
+         * @return the number of types newly mapped to a factory method
+         */
+        public int getMappingCount() {
+            return mappingCount;
+        }
+
+        /**
+         * @return the time the warm-up took, in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return mappingCount + " mappings from " + factoryCount + " factories in "
+                    + TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms";
+        }
     }
 
     /**
@@ -91,14 +347,142 @@ public class JAXBElementConverter {
                                                              NullPointerException,
                                                              InvocationTargetException {
 
-        final ObjectFactoryInvocation jaxbConverter = getJAXBFactoryMethodInfo(value.getClass());
-        final JAXBElement<?> result = jaxbConverter.convert(value);
+        final JAXBElement<?> result = getRequiredConverter(value.getClass()).convert(value);
         return result;
     }
 
+    /**
+     * Converts each of the payloads as per {@link #convertToJAXBElement(Object)}, looking up the
+     * factory method only when the payload type differs from that of the previous payload
+     *
+     * @param values
+     *            xsd-generated type objects to be wrapped within {@link JAXBElement}s
+     * @return {@link JAXBElement} wrapped representations, in the iteration order of
+     *         {@code values}
+     *
+     * @throws IllegalAccessException
+     *             if there was an error invoking a factory method.
+     * @throws NullPointerException
+     *             if any payload has no applicable factory method to effect the conversion.
+     * @throws InvocationTargetException
+     *             if there was an error invoking a factory method.
+     */
+    public List<JAXBElement<?>> convertAll(Collection<?> values) throws IllegalAccessException,
+                                                                      NullPointerException,
+                                                                      InvocationTargetException {
+        final List<JAXBElement<?>> result = new ArrayList<>(values.size());
+        Class<?> lastType = null;
+        ObjectFactoryInvocation jaxbConverter = null;
+        for (Object value : values) {
+            final Class<?> type = value.getClass();
+            if (type != lastType) {
+                jaxbConverter = getRequiredConverter(type);
+                lastType = type;
+            }
+            result.add(jaxbConverter.convert(value));
+        }
+        return result;
+    }
+
+    /**
+     * Lazily converts the payloads as per {@link #convertAll(Collection)}. The returned stream is
+     * parallel, running in the common fork-join pool, if {@code values} can be split into sized
+     * parts and holds at least {@link #PARALLEL_THRESHOLD} payloads.
+     * <p>
+     * As streams cannot throw checked exceptions, failures to invoke a factory method surface as
+     * the {@link RuntimeException} or {@link Error} thrown by the method, or else as an
+     * {@link IllegalStateException}.
+     *
+     * @param values
+     *            xsd-generated type objects to be wrapped within {@link JAXBElement}s
+     * @return a stream of the {@link JAXBElement} wrapped representations, ordered if
+     *         {@code values} is
+     */
+    public Stream<JAXBElement<?>> convertAll(Spliterator<?> values) {
+        final boolean parallel = values.hasCharacteristics(Spliterator.SUBSIZED)
+                && values.estimateSize() >= PARALLEL_THRESHOLD;
+        return StreamSupport.stream(new ConvertingSpliterator(values), parallel);
+    }
+
+    /**
+     * @throws NullPointerException
+     *             if there is no factory method for the type
+     */
+    private ObjectFactoryInvocation getRequiredConverter(Class<?> elementCls) {
+        final ObjectFactoryInvocation jaxbConverter = getJAXBFactoryMethodInfo(elementCls);
+        if (jaxbConverter == ObjectFactoryInvocation.NONE) {
+            throw new NullPointerException("No ObjectFactory method converts " + elementCls.getName());
+        }
+        return jaxbConverter;
+    }
+
+    /**
+     * Converts the payloads of another {@link Spliterator}, remembering the factory method for the
+     * type of the last payload it converted
+     */
+    private final class ConvertingSpliterator implements Spliterator<JAXBElement<?>> {
+        private final Spliterator<?> values;
+        private Class<?> lastType;
+        private ObjectFactoryInvocation jaxbConverter;
+
+        ConvertingSpliterator(Spliterator<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super JAXBElement<?>> action) {
+            return values.tryAdvance(value -> action.accept(convert(value)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super JAXBElement<?>> action) {
+            values.forEachRemaining(value -> action.accept(convert(value)));
+        }
+
+        @Override
+        public Spliterator<JAXBElement<?>> trySplit() {
+            final Spliterator<?> prefix = values.trySplit();
+            return prefix == null ? null : new ConvertingSpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return values.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return (values.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT))
+                    | NONNULL;
+        }
+
+        private JAXBElement<?> convert(Object value) {
+            final Class<?> type = value.getClass();
+            if (type != lastType) {
+                jaxbConverter = getRequiredConverter(type);
+                lastType = type;
+            }
+            try {
+                return jaxbConverter.convert(value);
+            } catch (InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
     /**
      * For a payload type locate the {@code ObjectFactory} and the {@link Method} on that factory
-     * that will effect the conversion
+     * that will effect the conversion, being the method accepting the type itself or otherwise its
+     * nearest superclass
      * <P>
      * The pair is wrapped in an {@link ObjectFactoryInvocation} object and cached for quicker
      * lookups in the future
@@ -107,26 +491,36 @@ public class JAXBElementConverter {
      *            - xsd-generated type's {@link Class}
      *
      * @return {@link ObjectFactoryInvocation} whose {@link ObjectFactoryInvocation#convert(Object)
-     *         convert} method can be invoked to get the {@link JAXBElement}
+     *         convert} method can be invoked to get the {@link JAXBElement}, or
+     *         {@link ObjectFactoryInvocation#NONE} if there is no such method
      */
     private  ObjectFactoryInvocation getJAXBFactoryMethodInfo(Class<?> elementCls) {
-        return jaxbFactoryMethods.computeIfAbsent(elementCls, this::getConverter);
+        return invocations.get(elementCls);
+    }
+
+    /**
+     * @return the factory method declared to accept exactly the given type, or {@code null} if
+     *         there is none
+     */
+    private ObjectFactoryInvocation getDeclaredConverter(Class<?> elementCls) {
+        final ObjectFactoryInvocation invocation = jaxbFactoryMethods.get(elementCls);
+        if (invocation != null || warmUpStats != null) {
+            // Once warmed up, the index holds every type any factory method accepts
+            return invocation;
+        }
+        final ObjectFactoryInvocation converter = getConverter(elementCls);
+        if (converter == null) {
+            // Not cached here, as the type may be any superclass of a converted value
+            return null;
+        }
+        final ObjectFactoryInvocation existing = jaxbFactoryMethods.putIfAbsent(elementCls, converter);
+        return existing != null ? existing : converter;
     }
 
     private  ObjectFactoryInvocation getConverter(Class<?> elementCls) {
         for (Object factory : objectFactories) {
-            Method[] methods = factory.getClass().getMethods();
-            for (Method m : methods) {
-                Class<?>[] pTypes = m.getParameterTypes();
-                Class<?> pType = null;
-                if (pTypes != null && pTypes.length == 1) {
-                    pType = pTypes[0];
-                } else {
-                    continue;
-                }
-
-                Class<?> type = m.getReturnType();
-                if (elementCls.equals(pType) && JAXBElement.class.isAssignableFrom(type)) {
+            for (Method m : ObjectFactoryMethods.of(factory.getClass())) {
+                if (elementCls.equals(m.getParameterTypes()[0])) {
                     return new ObjectFactoryInvocation(factory, m);
                 }
             }
@@ -0,0 +1,268 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.http.converters;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlElementDecl;
+import javax.xml.namespace.QName;
+
+/**
+ * Indexes the element declarations of xsd-generated {@code ObjectFactory}s by element name, the
+ * reverse of {@link JAXBElementConverter}, so that a {@link JAXBElement} can be created for a
+ * payload read from JSON without scanning the factories
+ * <P>
+ * The index is built once from the {@link XmlElementDecl} annotations on the factory methods.
+ * Elements declared with a {@link XmlElementDecl#scope() scope} are only found when looking up
+ * within that scope; global elements are found either way. Where more than one factory declares
+ * the same element, the first factory given wins. Where more than one global element holds the
+ * same type, the element {@link JAXBElementConverter} wraps values of that type in is kept.
+ *
+ * @since 10.2.2
+ */
+public class JAXBElementIndex {
+
+    private static final MethodHandle JAXB_ELEMENT_CONSTRUCTOR;
+
+    static {
+        try {
+            JAXB_ELEMENT_CONSTRUCTOR = MethodHandles.publicLookup().findConstructor(JAXBElement.class,
+                    MethodType.methodType(void.class, QName.class, Class.class, Class.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * An element declared by a factory method, along with a handle creating its
+     * {@link JAXBElement}s directly
+     */
+    public static final class Declaration {
+        private final QName name;
+        private final Class<?> declaredType;
+        private final Class<?> scope;
+        private final Class<?> valueType;
+        private final MethodHandle constructor;
+
+        Declaration(QName name, Class<?> declaredType, Class<?> scope) {
+            this.name = name;
+            this.declaredType = declaredType;
+            this.scope = scope;
+            this.valueType = MethodType.methodType(declaredType).wrap().returnType();
+            this.constructor = MethodHandles.insertArguments(JAXB_ELEMENT_CONSTRUCTOR, 0, name, declaredType, scope)
+                    .asType(MethodType.methodType(JAXBElement.class, Object.class));
+        }
+
+        /**
+         * @return the element name
+         */
+        public QName getName() {
+            return name;
+        }
+
+        /**
+         * @return the type of the element's value
+         */
+        public Class<?> getDeclaredType() {
+            return declaredType;
+        }
+
+        /**
+         * @return the type the element is declared within, or {@code null} for a global element
+         */
+        public Class<?> getScope() {
+            return scope;
+        }
+
+        /**
+         * @return the JSON type id of the {@link #getDeclaredType() declared type}
+         */
+        public String getTypeId() {
+            return typeIdOf(declaredType);
+        }
+
+        /**
+         * Wraps the payload in an element of this declaration, as the factory method would
+         *
+         * @param value
+         *            payload of the element, possibly {@code null}
+         * @return {@link JAXBElement} wrapped representation
+         * @throws ClassCastException
+         *             if the payload is not of the {@link #getDeclaredType() declared type}
+         */
+        public JAXBElement<?> createElement(Object value) {
+            if (value != null && !valueType.isInstance(value)) {
+                throw new ClassCastException("Element " + name + " holds " + declaredType.getName()
+                        + ", not " + value.getClass().getName());
+            }
+            try {
+                return (JAXBElement<?>) constructor.invokeExact(value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                // The constructor declares no checked exceptions
+                throw new IllegalStateException(t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + " -> " + declaredType.getName() + (scope == null ? "" : " in " + scope.getName());
+        }
+    }
+
+    private final Map<QName, Declaration> globalElements;
+    private final Map<Class<?>, Map<QName, Declaration>> scopedElements;
+    private final Map<Class<?>, Declaration> elementsByType;
+    private final Map<String, Class<?>> typesById;
+
+    /**
+     * Type ids held by more than one declared type
+     */
+    private final Set<String> ambiguousTypeIds;
+
+    /**
+     * @param objectFactories
+     *            the {@code ObjectFactory}s, or their classes, to index
+     */
+    public JAXBElementIndex(final List<?> objectFactories) {
+        final Map<QName, Declaration> global = new HashMap<>();
+        final Map<Class<?>, Map<QName, Declaration>> scoped = new HashMap<>();
+        final Map<Class<?>, Declaration> byType = new HashMap<>();
+        final Map<String, Class<?>> byId = new HashMap<>();
+        final Set<String> ambiguous = new HashSet<>();
+
+        for (Object factory : objectFactories) {
+            final Class<?> factoryClass = factory instanceof Class ? (Class<?>) factory : factory.getClass();
+            for (Method m : ObjectFactoryMethods.of(factoryClass)) {
+                final QName name = ObjectFactoryMethods.elementName(m);
+                if (name == null) {
+                    continue;
+                }
+
+                final Class<?> scope = ObjectFactoryMethods.scope(m);
+                final Declaration declaration = new Declaration(name, m.getParameterTypes()[0], scope);
+
+                if (scope == null) {
+                    global.putIfAbsent(name, declaration);
+                    if (byType.putIfAbsent(declaration.getDeclaredType(), declaration) == null) {
+                        final Class<?> other = byId.putIfAbsent(declaration.getTypeId(), declaration.getDeclaredType());
+                        if (other != null) {
+                            ambiguous.add(declaration.getTypeId());
+                        }
+                    }
+                } else {
+                    scoped.computeIfAbsent(scope, s -> new HashMap<>()).putIfAbsent(name, declaration);
+                }
+            }
+        }
+
+        this.globalElements = Collections.unmodifiableMap(global);
+        this.scopedElements = Collections.unmodifiableMap(scoped);
+        this.elementsByType = Collections.unmodifiableMap(byType);
+        this.typesById = Collections.unmodifiableMap(byId);
+        this.ambiguousTypeIds = Collections.unmodifiableSet(ambiguous);
+    }
+
+    /**
+     * @param name
+     *            element name
+     * @return the global element of that name, or {@code null} if there is none
+     */
+    public Declaration get(QName name) {
+        return globalElements.get(name);
+    }
+
+    /**
+     * @param scope
+     *            type the element appears within
+     * @param name
+     *            element name
+     * @return the element of that name declared within the scope, else the global element of that
+     *         name, or {@code null} if there is neither
+     */
+    public Declaration get(Class<?> scope, QName name) {
+        final Map<QName, Declaration> elements = scopedElements.get(scope);
+        final Declaration declaration = elements == null ? null : elements.get(name);
+        return declaration != null ? declaration : globalElements.get(name);
+    }
+
+    /**
+     * @param type
+     *            type of the element value
+     * @return the global element values of exactly that type are wrapped in, or {@code null} if
+     *         there is none
+     */
+    public Declaration getByType(Class<?> type) {
+        return elementsByType.get(type);
+    }
+
+    /**
+     * @param typeId
+     *            JSON type id, as written in the {@code _type} property
+     * @return the global element values of the type with that id are wrapped in, as per
+     *         {@link #getByType(Class)}, or {@code null} if there is none
+     * @throws IllegalArgumentException
+     *             if types of more than one package share the id, in which case the type must be
+     *             resolved otherwise and looked up through {@link #getByType(Class)}
+     */
+    public Declaration getByTypeId(String typeId) {
+        if (ambiguousTypeIds.contains(typeId)) {
+            throw new IllegalArgumentException("Type id " + typeId + " is held by more than one type");
+        }
+        final Class<?> type = typesById.get(typeId);
+        return type == null ? null : elementsByType.get(type);
+    }
+
+    /**
+     * @return all global elements by name
+     */
+    public Map<QName, Declaration> getGlobalElements() {
+        return globalElements;
+    }
+
+    /**
+     * @return the JSON type id of the type, as assigned to the sub-types of abstract types by
+     *         {@code RestApiJsonBindingsPlugin}
+     */
+    private static String typeIdOf(Class<?> type) {
+        return type.getSimpleName();
+    }
+}
@@ -38,7 +38,8 @@ import com.fasterxml.jackson.annotation.JsonValue;
  * A Jackson Mixin that guides serializing {@link JAXBElement}'s as just being the core payload
  * (returned by {@link JAXBElement#getValue() value field of JAXBElement}.
  * <P>
- * De-serializing the payload is handled by {@code VCloudJsonJaxrsProvider}
+ * De-serializing the payload is handled by {@code VCloudJsonJaxrsProvider}, which can find the
+ * element to wrap it in through {@link JAXBElementIndex}
  * <P>
  * Ref:<A href="https://github.com/FasterXML/jackson-docs/wiki/JacksonMixInAnnotations">Official
  * Jackson MixIn Annotations Documentation</A>
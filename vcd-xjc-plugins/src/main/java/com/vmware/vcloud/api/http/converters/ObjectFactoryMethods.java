@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.http.converters;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlElementDecl;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.namespace.QName;
+
+/**
+ * Lists the factory methods of an {@code ObjectFactory} in the order both
+ * {@link JAXBElementConverter} and {@link JAXBElementIndex} prefer them in, so that the two agree
+ * on which element wraps a type accepted by more than one method
+ * <P>
+ * {@link Class#getMethods()} returns methods in no particular order. Methods declaring a global
+ * element come first, then those declaring a scoped element, then any others; each group is
+ * ordered by element name and then by method name.
+ */
+final class ObjectFactoryMethods {
+
+    private static final String DEFAULT_NAMESPACE = "##default";
+
+    private static final Comparator<Method> PREFERENCE = Comparator
+            .comparingInt(ObjectFactoryMethods::rank)
+            .thenComparing(ObjectFactoryMethods::elementKey)
+            .thenComparing(Method::getName);
+
+    private static final ClassValue<List<Method>> METHODS = new ClassValue<List<Method>>() {
+        @Override
+        protected List<Method> computeValue(Class<?> factoryClass) {
+            final List<Method> methods = new ArrayList<>();
+            for (Method m : factoryClass.getMethods()) {
+                if (isFactoryMethod(m)) {
+                    methods.add(m);
+                }
+            }
+            methods.sort(PREFERENCE);
+            return Collections.unmodifiableList(methods);
+        }
+    };
+
+    private ObjectFactoryMethods() {
+    }
+
+    /**
+     * @return the factory methods of the factory class, most preferred first
+     */
+    static List<Method> of(Class<?> factoryClass) {
+        return METHODS.get(factoryClass);
+    }
+
+    /**
+     * @return the name of the element the method declares, or {@code null} if it declares none
+     */
+    static QName elementName(Method m) {
+        final XmlElementDecl decl = m.getAnnotation(XmlElementDecl.class);
+        if (decl == null) {
+            return null;
+        }
+        return new QName(resolveNamespace(decl.namespace(), m.getDeclaringClass()), decl.name());
+    }
+
+    /**
+     * @return the scope of the element the method declares, or {@code null} if it is global or the
+     *         method declares none
+     */
+    static Class<?> scope(Method m) {
+        final XmlElementDecl decl = m.getAnnotation(XmlElementDecl.class);
+        return decl == null || decl.scope() == XmlElementDecl.GLOBAL.class ? null : decl.scope();
+    }
+
+    private static boolean isFactoryMethod(Method m) {
+        return m.getParameterCount() == 1 && JAXBElement.class.isAssignableFrom(m.getReturnType());
+    }
+
+    private static int rank(Method m) {
+        final XmlElementDecl decl = m.getAnnotation(XmlElementDecl.class);
+        if (decl == null) {
+            return 2;
+        }
+        return decl.scope() == XmlElementDecl.GLOBAL.class ? 0 : 1;
+    }
+
+    private static String elementKey(Method m) {
+        final QName name = elementName(m);
+        return name == null ? "" : name.toString();
+    }
+
+    private static String resolveNamespace(String namespace, Class<?> factoryClass) {
+        if (!DEFAULT_NAMESPACE.equals(namespace)) {
+            return namespace;
+        }
+        final Package pkg = factoryClass.getPackage();
+        final XmlSchema schema = pkg == null ? null : pkg.getAnnotation(XmlSchema.class);
+        return schema == null ? "" : schema.namespace();
+    }
+}
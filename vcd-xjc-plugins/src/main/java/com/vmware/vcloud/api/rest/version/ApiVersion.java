@@ -29,66 +29,100 @@
 
 package com.vmware.vcloud.api.rest.version;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.NavigableMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
 import com.vmware.vcloud.api.annotation.Supported;
+import com.vmware.vcloud.api.rest.version.ApiVersionCacheHelper.KeyIndex;
 
 /**
  * API version and alias handling.
  *
  * @since 1.5.0
  */
+@XmlJavaTypeAdapter(ApiVersionXmlAdapter.class)
 public class ApiVersion implements Comparable<ApiVersion>, Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The serialized form as of before three-part and alpha versions were introduced, kept so that
+     * nodes running either release can read versions written by the other. Patch version, alpha
+     * flag and sort key are not part of it: they are derived from {@code version}, which
+     * {@link #readResolve()} resolves to the registered instance. {@code isAlpha} is no longer
+     * backed by a field and is always written as {@code null}, as it always was.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("version", String.class),
+            new ObjectStreamField("isDeprecated", boolean.class),
+            new ObjectStreamField("majorVersion", int.class),
+            new ObjectStreamField("minorVersion", int.class),
+            new ObjectStreamField("isAlpha", Boolean.class),
+    };
+
     private static final String ALPHA_VERSION_TAIL = "-alpha";
-    private static final String FUTURE_VERSION_ALIAS = "";
+    private static final String VERSION_FORMAT = "%d.%d";
+    private static final String PATCH_VERSION_FORMAT = "%d.%d.%d";
 
-    private static final Comparator<String> VERSION_STRING_COMPARATOR = new Comparator<String>() {
-        private final Function<String, int[]> split = s -> {
-            final String[] tokens = s.split(ALPHA_VERSION_TAIL)[0].split("\\.");
-            if (tokens.length > 2) {
-                throw new AssertionError("Comparator must be updated to handle x.y.z");
-            }
-            return new int[] { Integer.parseInt(tokens[0]), Integer.parseInt(tokens[1]) };
-        };
-        @Override
-        public int compare(String s1, String s2) {
-            final int[] v1 = split.apply(s1);
-            final int[] v2 = split.apply(s2);
-            if (v1[0] == v2[0]) {
-                return Integer.compare(v1[1], v2[1]);
-            }
-            return Integer.compare(v1[0], v2[0]);
-        }
-    };
+    /**
+     * Patch version of two-part versions, which are formatted as <i>major</i>.<i>minor</i> only
+     */
+    private static final int NO_PATCH_VERSION = -1;
+
+    /*
+     * Layout of the sort key. Each number is given a field wide enough for any realistic version
+     * and the alpha flag is most significant, as an alpha version is always the highest version.
+     */
+    private static final int PATCH_BITS = 20;
+    private static final int MINOR_BITS = 20;
+    private static final int MAJOR_BITS = 22;
+    private static final int MINOR_SHIFT = PATCH_BITS;
+    private static final int MAJOR_SHIFT = MINOR_SHIFT + MINOR_BITS;
+    private static final int ALPHA_SHIFT = MAJOR_SHIFT + MAJOR_BITS;
 
     /**
-     * Map holding all valid API versions, mapped to their version string.
-     * <p>
-     * The highest supported version will always (and only) indicate alpha support.
+     * All valid API versions in registration order. Each constant registers itself here upon
+     * construction; once all constants are constructed the list is sorted into {@link #ORDERED}
+     * and is not used any further.
      */
-    private static final NavigableMap<String, ApiVersion> VERSIONS = new TreeMap<>(VERSION_STRING_COMPARATOR);
+    private static final List<ApiVersion> REGISTERED = new ArrayList<>();
 
     /*
      * New API versions should be added below, each will automatically be
-     * added to the above map used by the rest of the {@code ApiVersion} class.
+     * added to the above list and from there to the ordinal-indexed registry used
+     * by the rest of the {@code ApiVersion} class.
      * <p>
-     * Order of the below doesn't strictly matter since the containing map will be
-     * ordered based on the version string, not insertion order. But adding items
+     * Order of the below doesn't strictly matter since the registry will be
+     * ordered based on the version numbers, not insertion order. But adding items
      * in their appropriate order is encouraged for increased readability.
      * <p>
      * When adding a version corresponding to a new product version (i.e. not a
      * patch) you will typically want to <i>also</i> deprecate the API version(s)
      * corresponding to the oldest non-deprecated product version.
+     * <p>
+     * Versions are usually <i>major</i>.<i>minor</i>, but may also carry a patch
+     * number and/or be flagged as alpha through the five-argument constructor, e.g.
+     * {@code new ApiVersion(35, 2, 1, false, false)} for {@code 35.2.1}. No two
+     * versions may share the same numbers, so {@code x.y} and {@code x.y.0} are
+     * mutually exclusive.
      */
 
     /** Introduced in product version 1.0 */
@@ -245,6 +279,52 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
 
     public static final ApiVersion VERSION_MAX = new ApiVersion(Integer.MAX_VALUE, Integer.MAX_VALUE);
 
+    /**
+     * All valid API versions, indexed by their {@link #ordinal() ordinal}.
+     * <p>
+     * The highest supported version will always (and only) indicate alpha support.
+     */
+    private static final ApiVersion[] ORDERED;
+
+    /**
+     * All valid <i>major</i>.<i>minor</i> API versions, indexed by major and then minor version
+     * number. Slots which do not correspond to such a version are {@code null}.
+     */
+    private static final ApiVersion[][] BY_NUMBER;
+
+    static {
+        REGISTERED.sort(Comparator.comparingLong(v -> v.sortKey));
+        ORDERED = REGISTERED.toArray(new ApiVersion[REGISTERED.size()]);
+        for (int i = 0; i < ORDERED.length; i++) {
+            if (i > 0 && ORDERED[i - 1].sortKey == ORDERED[i].sortKey) {
+                throw new AssertionError("API versions " + ORDERED[i - 1] + " and " + ORDERED[i]
+                        + " must not both be defined");
+            }
+            ORDERED[i].ordinal = i;
+        }
+        // Sorts above every registered version but is deliberately not part of the registry
+        VERSION_MAX.ordinal = ORDERED.length;
+
+        int maxMajorVersion = 0;
+        for (ApiVersion v : ORDERED) {
+            maxMajorVersion = Math.max(maxMajorVersion, v.majorVersion);
+        }
+        BY_NUMBER = new ApiVersion[maxMajorVersion + 1][];
+        for (ApiVersion v : ORDERED) {
+            if (v.patchVersion != NO_PATCH_VERSION || v.alpha) {
+                // Parsed by their full value only
+                continue;
+            }
+            final ApiVersion[] minors = BY_NUMBER[v.majorVersion];
+            if (minors == null || minors.length <= v.minorVersion) {
+                BY_NUMBER[v.majorVersion] = minors == null
+                        ? new ApiVersion[v.minorVersion + 1]
+                        : Arrays.copyOf(minors, v.minorVersion + 1);
+            }
+            BY_NUMBER[v.majorVersion][v.minorVersion] = v;
+        }
+    }
+
     /**
      * This enum will help manage all API version alias mappings.
      */
@@ -372,7 +452,26 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
         }
     }
 
-    private static final String VERSION_FORMAT = "%d.%d";
+    /**
+     * {@link Supported} ranges compiled by {@link #getSupportedRange(Supported)}, in an
+     * open-addressing table keyed by annotation identity.
+     * <p>
+     * Annotations are compared by identity rather than by their attributes, as computing the hash
+     * code of an annotation and comparing it to another walks all of their members. Entries only
+     * weakly reference their annotation, so the table is bounded by the number of annotation
+     * instances in use, and entries of collected annotations are dropped when the table is rebuilt.
+     * Reads do not lock; entries are immutable, and are only added or replaced while holding
+     * {@link #SUPPORTED_RANGES_LOCK}.
+     */
+    private static volatile SupportedRange[] supportedRanges = new SupportedRange[64];
+
+    /**
+     * Number of occupied slots of {@link #supportedRanges}, including entries whose annotation has
+     * been collected; guarded by {@link #SUPPORTED_RANGES_LOCK}
+     */
+    private static int supportedRangeSlots;
+
+    private static final Object SUPPORTED_RANGES_LOCK = new Object();
 
     private final String version;
 
@@ -382,39 +481,109 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
 
     private final int minorVersion;
 
-    private final Boolean isAlpha = null;
+    private final transient int patchVersion;
+
+    private final transient boolean alpha;
+
+    /**
+     * Major, minor and patch version and alpha flag packed such that comparing keys compares
+     * versions.
+     */
+    private final transient long sortKey;
+
+    /**
+     * Position of this version in {@link #ORDERED}; assigned once during class initialization.
+     * <p>
+     * Not serialized, as deserialized instances are replaced by the registered instance through
+     * {@link #readResolve()}.
+     */
+    private transient int ordinal;
 
     private ApiVersion(int majorVersion, int minorVersion) {
         this(majorVersion, minorVersion, false);
     }
 
     private ApiVersion(int majorVersion, int minorVersion, boolean isDeprecated) {
+        this(majorVersion, minorVersion, NO_PATCH_VERSION, false, isDeprecated);
+    }
+
+    private ApiVersion(int majorVersion, int minorVersion, int patchVersion, boolean alpha,
+            boolean isDeprecated) {
         this.majorVersion = majorVersion;
         this.minorVersion = minorVersion;
+        this.patchVersion = patchVersion;
+        this.alpha = alpha;
         this.isDeprecated = isDeprecated;
         if (majorVersion == Integer.MAX_VALUE && minorVersion == Integer.MAX_VALUE) {
             this.version = "";
-            // This does NOT get put in VERSIONS because it's not a "real" version, just a convenience
+            this.sortKey = Long.MAX_VALUE;
+            // This does NOT get put in REGISTERED because it's not a "real" version, just a convenience
         } else {
-            this.version = String.format(VERSION_FORMAT, majorVersion, minorVersion);
-            VERSIONS.put(version, this);
+            if (majorVersion < 0 || majorVersion >= 1 << MAJOR_BITS
+                    || minorVersion < 0 || minorVersion >= 1 << MINOR_BITS
+                    || patchVersion < NO_PATCH_VERSION || patchVersion >= 1 << PATCH_BITS) {
+                throw new AssertionError("Sort key must be updated to handle " + majorVersion + "."
+                        + minorVersion + "." + patchVersion);
+            }
+            final String number = patchVersion == NO_PATCH_VERSION
+                    ? String.format(VERSION_FORMAT, majorVersion, minorVersion)
+                    : String.format(PATCH_VERSION_FORMAT, majorVersion, minorVersion, patchVersion);
+            this.version = alpha ? number + ALPHA_VERSION_TAIL : number;
+            this.sortKey = (alpha ? 1L << ALPHA_SHIFT : 0L)
+                    | (long) majorVersion << MAJOR_SHIFT
+                    | (long) minorVersion << MINOR_SHIFT
+                    | Math.max(patchVersion, 0);
+            REGISTERED.add(this);
         }
     }
 
-    private boolean isAlpha() {
-        return false;
+    /**
+     * @return flag indicating if this is an alpha version, which sorts above all other versions
+     */
+    public boolean isAlpha() {
+        return alpha;
     }
 
     /**
      * @return the version as string
      */
+    @JsonValue
     public String value() {
-        if (isAlpha()) {
-            return version + ALPHA_VERSION_TAIL;
-        }
         return version;
     }
 
+    /**
+     * Returns the position of this version amongst all valid API versions, in ascending version
+     * order. Ordinals are dense, starting at {@code 0}; {@link #VERSION_MAX} has an ordinal one
+     * past the highest valid version.
+     * <p>
+     * Ordinals are only stable for a given build of this class and must not be persisted.
+     *
+     * @return the ordinal of this version
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return the number of valid API versions, which is also the ordinal of {@link #VERSION_MAX}
+     */
+    static int versionCount() {
+        return ORDERED.length;
+    }
+
+    /**
+     * @param ordinal the ordinal of the version, as returned by {@link #ordinal()}
+     * @return the valid API version with the given ordinal
+     * @throws IllegalArgumentException if no valid API version has that ordinal
+     */
+    public static ApiVersion fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= ORDERED.length) {
+            throw new IllegalArgumentException("Unknown API version ordinal: " + ordinal);
+        }
+        return ORDERED[ordinal];
+    }
+
     /**
      * @return flag indicating if the API version is marked for deprecation
      */
@@ -427,24 +596,153 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
      * @return version as enum item
      * @throws IllegalArgumentException if the version is not recognized
      */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
     public static ApiVersion fromValue(String v) {
-        if (FUTURE_VERSION_ALIAS.equals(v)) {
+        final KeyIndex.Entry entry = ApiVersionCacheHelper.instance.lookup(v);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown API version: " + v);
+        }
+        return entry.version;
+    }
+
+    /**
+     * Resolves the version held in the given region of a character sequence, such as the value of
+     * a {@code version} media type parameter within an {@code Accept} header, without creating an
+     * intermediate {@link String}.
+     * <p>
+     * Version numbers of the form <i>major</i>.<i>minor</i> are parsed directly into the
+     * corresponding instance; anything else is resolved as an alias. An empty region resolves to
+     * {@link #VERSION_MAX}, consistent with {@link #fromValue(String)}.
+     *
+     * @param value sequence holding the version
+     * @param start index of the first character of the version, inclusive
+     * @param end index of the last character of the version, exclusive
+     * @return version as enum item
+     * @throws IllegalArgumentException if the version is not recognized
+     * @throws IndexOutOfBoundsException if the region lies outside of {@code value}
+     */
+    public static ApiVersion fromValue(CharSequence value, int start, int end) {
+        if (start < 0 || end > value.length() || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + value.length());
+        }
+        if (start == end) {
             return VERSION_MAX;
         }
-        if (!ApiVersionCacheHelper.instance.isCached(v)) {
-            if (!ApiVersionCacheHelper.instance.isAliasCached(v)) {
-                throw new IllegalArgumentException("Unknown API version: " + v);
+
+        final ApiVersion apiVersion = parseVersionNumber(value, start, end);
+        if (apiVersion != null) {
+            return apiVersion;
+        }
+
+        final KeyIndex.Entry entry = ApiVersionCacheHelper.instance.lookup(value, start, end);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown API version: " + value.subSequence(start, end));
+        }
+        return entry.version;
+    }
+
+    /**
+     * Resolves the version held in the given region of an US-ASCII encoded byte array, such as a
+     * raw HTTP header, without decoding it to a {@link String} first.
+     *
+     * @param value bytes holding the version
+     * @param start index of the first byte of the version, inclusive
+     * @param end index of the last byte of the version, exclusive
+     * @return version as enum item
+     * @throws IllegalArgumentException if the version is not recognized
+     * @throws IndexOutOfBoundsException if the region lies outside of {@code value}
+     * @see #fromValue(CharSequence, int, int)
+     */
+    public static ApiVersion fromBytes(byte[] value, int start, int end) {
+        if (start < 0 || end > value.length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + value.length);
+        }
+        if (start == end) {
+            return VERSION_MAX;
+        }
+
+        final ApiVersion apiVersion = parseVersionNumber(value, start, end);
+        if (apiVersion != null) {
+            return apiVersion;
+        }
+
+        final KeyIndex.Entry entry = ApiVersionCacheHelper.instance.lookup(value, start, end);
+        if (entry == null) {
+            throw new IllegalArgumentException(
+                    "Unknown API version: " + new String(value, start, end - start, StandardCharsets.US_ASCII));
+        }
+        return entry.version;
+    }
+
+    /**
+     * @return the version numbered <i>major</i>.<i>minor</i> as found in the region, or
+     *         {@code null} if the region is not formatted as such or no such version exists
+     */
+    private static ApiVersion parseVersionNumber(CharSequence value, int start, int end) {
+        int major = 0;
+        int i = start;
+        for (; i < end && value.charAt(i) != '.'; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || (i > start && major == 0) || major >= BY_NUMBER.length) {
+                return null;
+            }
+            major = major * 10 + digit;
+        }
+
+        if (i == start || i >= end - 1) {
+            return null;
+        }
+        int minor = 0;
+        final int minorStart = ++i;
+        for (; i < end; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || (i > minorStart && minor == 0) || minor > 0xFFFF) {
+                return null;
             }
-            return ApiVersionCacheHelper.instance.getAliasValue(v);
+            minor = minor * 10 + digit;
         }
-        return ApiVersionCacheHelper.instance.getValue(v);
+        return lookupVersionNumber(major, minor);
     }
 
-    public static boolean isValidApiVersion(String v) {
-        if (!ApiVersionCacheHelper.instance.isCached(v) && !FUTURE_VERSION_ALIAS.equals(v)) {
-            return ApiVersionCacheHelper.instance.isAliasCached(v);
+    /**
+     * @see #parseVersionNumber(CharSequence, int, int)
+     */
+    private static ApiVersion parseVersionNumber(byte[] value, int start, int end) {
+        int major = 0;
+        int i = start;
+        for (; i < end && value[i] != '.'; i++) {
+            final int digit = value[i] - '0';
+            if (digit < 0 || digit > 9 || (i > start && major == 0) || major >= BY_NUMBER.length) {
+                return null;
+            }
+            major = major * 10 + digit;
+        }
+
+        if (i == start || i >= end - 1) {
+            return null;
+        }
+        int minor = 0;
+        final int minorStart = ++i;
+        for (; i < end; i++) {
+            final int digit = value[i] - '0';
+            if (digit < 0 || digit > 9 || (i > minorStart && minor == 0) || minor > 0xFFFF) {
+                return null;
+            }
+            minor = minor * 10 + digit;
         }
-        return true;
+        return lookupVersionNumber(major, minor);
+    }
+
+    private static ApiVersion lookupVersionNumber(int major, int minor) {
+        if (major >= BY_NUMBER.length) {
+            return null;
+        }
+        final ApiVersion[] minors = BY_NUMBER[major];
+        return minors == null || minor >= minors.length ? null : minors[minor];
+    }
+
+    public static boolean isValidApiVersion(String v) {
+        return ApiVersionCacheHelper.instance.lookup(v) != null;
     }
 
     /**
@@ -454,7 +752,116 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
      * @return {@code true} if s.addedIn &lt;= this &lt; s.removedIn or if s is {@code null}
      */
     public boolean isInRange(Supported s) {
-        return s == null || isInRange(fromValue(s.addedIn()), fromValue(s.removedIn()));
+        if (s == null) {
+            return true;
+        }
+        final long range = getSupportedRange(s);
+        return (int) (range >>> 32) <= ordinal && ordinal < (int) range;
+    }
+
+    /**
+     * Resolves the range of <b>s</b> to the ordinals of its bounds, compiling it on first use.
+     *
+     * @return the ordinal of {@code s.addedIn} in the high and that of {@code s.removedIn} in the
+     *         low 32 bits
+     */
+    private static long getSupportedRange(Supported s) {
+        final Map<String, ApiVersion> aliases = ApiVersionCacheHelper.instance.getAliasSnapshot();
+        final SupportedRange[] table = supportedRanges;
+        final int mask = table.length - 1;
+        SupportedRange entry;
+        for (int i = slotOf(s, mask); (entry = table[i]) != null; i = (i + 1) & mask) {
+            if (entry.get() == s) {
+                if (entry.aliases == aliases) {
+                    return entry.range;
+                }
+                break;
+            }
+        }
+
+        final long range = ((long) fromValue(s.addedIn()).ordinal << 32) | fromValue(s.removedIn()).ordinal;
+        synchronized (SUPPORTED_RANGES_LOCK) {
+            putSupportedRange(new SupportedRange(s, aliases, range));
+        }
+        return range;
+    }
+
+    /**
+     * Adds or replaces the entry for the annotation of the given entry, rebuilding the table if it
+     * would become more than half full. Must be called holding {@link #SUPPORTED_RANGES_LOCK}.
+     */
+    private static void putSupportedRange(SupportedRange entry) {
+        final Supported s = entry.get();
+        SupportedRange[] table = supportedRanges;
+        int mask = table.length - 1;
+        int i = slotOf(s, mask);
+        for (SupportedRange existing; (existing = table[i]) != null; i = (i + 1) & mask) {
+            if (existing.get() == s) {
+                table[i] = entry;
+                return;
+            }
+        }
+
+        if ((supportedRangeSlots + 1) * 2 > table.length) {
+            int live = 1;
+            for (SupportedRange existing : table) {
+                if (existing != null && existing.get() != null) {
+                    live++;
+                }
+            }
+            int capacity = 64;
+            while (capacity < live * 2) {
+                capacity <<= 1;
+            }
+
+            final SupportedRange[] rebuilt = new SupportedRange[capacity];
+            supportedRangeSlots = 0;
+            for (SupportedRange existing : table) {
+                final Supported annotation = existing == null ? null : existing.get();
+                if (annotation != null) {
+                    rebuilt[freeSlot(rebuilt, annotation)] = existing;
+                    supportedRangeSlots++;
+                }
+            }
+            rebuilt[freeSlot(rebuilt, s)] = entry;
+            supportedRangeSlots++;
+            supportedRanges = rebuilt;
+            return;
+        }
+
+        table[i] = entry;
+        supportedRangeSlots++;
+    }
+
+    private static int freeSlot(SupportedRange[] table, Supported s) {
+        final int mask = table.length - 1;
+        int i = slotOf(s, mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int slotOf(Supported s, int mask) {
+        final int h = System.identityHashCode(s);
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * A compiled {@link Supported} range, weakly referencing the annotation it was compiled from.
+     * <p>
+     * Either bound may be an alias and aliases can be registered at runtime, so the range is only
+     * valid for as long as the alias snapshot it was compiled against is current.
+     */
+    private static final class SupportedRange extends WeakReference<Supported> {
+        final Map<String, ApiVersion> aliases;
+        final long range;
+
+        SupportedRange(Supported annotation, Map<String, ApiVersion> aliases, long range) {
+            super(annotation);
+            this.aliases = aliases;
+            this.range = range;
+        }
     }
 
     /**
@@ -488,7 +895,69 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
      *         otherwise
      */
     public boolean isAtLeast(final Alias alias) {
-        return isAtLeast(alias.getMapping());
+        return isEnabled(alias);
+    }
+
+    /**
+     * Tests if the feature represented by the given {@code Alias} is available in this version,
+     * that is if this version is greater than or equal to the one the alias maps to.
+     * <p>
+     * Equivalent to {@link #isAtLeast(Alias)}, but resolved by a single bit test against a table
+     * precomputed per version.
+     *
+     * @param alias Alias of the feature
+     * @return true if the feature is enabled in this version, false otherwise
+     */
+    public boolean isEnabled(final Alias alias) {
+        final int bit = alias.ordinal();
+        return (AliasFeatures.ENABLED[ordinal][bit >>> 6] & 1L << bit) != 0;
+    }
+
+    /**
+     * Returns all features enabled in this version, allowing a request to snapshot its feature
+     * flags once rather than comparing versions for every check.
+     *
+     * @return unmodifiable set of the aliases for which {@link #isEnabled(Alias)} holds, shared
+     *         between callers
+     */
+    public Set<Alias> enabledFeatures() {
+        return AliasFeatures.ENABLED_SETS.get(ordinal);
+    }
+
+    /**
+     * Aliases enabled in each version, indexed by {@link #ordinal()} including that of
+     * {@link #VERSION_MAX}.
+     * <p>
+     * Held separately so that the tables are only built on first use, once both all versions and
+     * all aliases are initialized.
+     */
+    private static final class AliasFeatures {
+        static final long[][] ENABLED;
+        static final List<Set<Alias>> ENABLED_SETS;
+
+        static {
+            final Alias[] aliases = Alias.values();
+            final int rows = ORDERED.length + 1;
+            final int words = (aliases.length + 63) >>> 6;
+            final long[][] enabled = new long[rows][];
+            final List<Set<Alias>> enabledSets = new ArrayList<>(rows);
+
+            final long[] row = new long[words];
+            final EnumSet<Alias> set = EnumSet.noneOf(Alias.class);
+            for (int ordinal = 0; ordinal < rows; ordinal++) {
+                for (Alias alias : aliases) {
+                    if (alias.getMapping().ordinal == ordinal) {
+                        row[alias.ordinal() >>> 6] |= 1L << alias.ordinal();
+                        set.add(alias);
+                    }
+                }
+                enabled[ordinal] = row.clone();
+                enabledSets.add(Collections.unmodifiableSet(EnumSet.copyOf(set)));
+            }
+
+            ENABLED = enabled;
+            ENABLED_SETS = Collections.unmodifiableList(enabledSets);
+        }
     }
 
     /**
@@ -543,7 +1012,8 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
     }
 
     /**
-     * @return the set of keys used in the cache.
+     * @return the set of keys used in the cache. The set is unmodifiable and shared between
+     *         callers.
      */
     public static Set<String> getAllKeys() {
         return ApiVersionCacheHelper.instance.getAllKeys();
@@ -569,9 +1039,12 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
      */
     public static List<ApiVersion> getRange(final ApiVersion minApiVersion,
                                             final ApiVersion maxApiVersion) {
-        return VERSIONS.values().stream()
-                .filter(api -> api.isAtLeast(minApiVersion) && api.isAtMost(maxApiVersion))
-                .collect(Collectors.toList());
+        final int from = minApiVersion.ordinal;
+        final int to = Math.min(maxApiVersion.ordinal, ORDERED.length - 1);
+        if (from > to) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(ORDERED).subList(from, to + 1));
     }
 
     /**
@@ -586,6 +1059,32 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
         return getRange(minApiVersion, Alias.MAX_SUPPORTED.getMapping());
     }
 
+    /**
+     * Gets the set of ApiVersion between the min and max apiVersions (Inclusive).
+     *
+     * @param minApiVersion
+     *            Min version
+     * @param maxApiVersion
+     *            Max version
+     * @return Set of ApiVersion, holding the same versions as {@link #getRange(ApiVersion, ApiVersion)}
+     */
+    public static ApiVersionSet getRangeSet(final ApiVersion minApiVersion,
+                                            final ApiVersion maxApiVersion) {
+        return ApiVersionSet.range(minApiVersion, maxApiVersion);
+    }
+
+    /**
+     * Gets the set of ApiVersion from the min version to the max supported version for this vCD
+     * instance. (Inclusive)
+     *
+     * @param minApiVersion
+     *            Min version
+     * @return Set of ApiVersion, holding the same versions as {@link #getRangeAbove(ApiVersion)}
+     */
+    public static ApiVersionSet getRangeAboveSet(final ApiVersion minApiVersion) {
+        return getRangeSet(minApiVersion, Alias.MAX_SUPPORTED.getMapping());
+    }
+
     /**
      * Returns the ApiVersion preceding the given ApiVersion intended for use only for ApiVersion
      * 29.0 and above.
@@ -601,17 +1100,22 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
             throw new UnsupportedOperationException(
                     "Only supported for API version 29.0 and above.");
         }
-        /* We could compute this for each version and cache it but at present
-         * the only non-test call to this is a single call from a CMT command
-         * so there's no need to optimize it presently. */
-        ApiVersion previous = null;
-        for (ApiVersion version : VERSIONS.values()) {
-            if (version.equals(apiVersion)) {
-                return previous;
-            }
-            previous = version;
+        if (apiVersion == VERSION_MAX || apiVersion.ordinal == 0) {
+            return null;
         }
-        return null;
+        return ORDERED[apiVersion.ordinal - 1];
+    }
+
+    /**
+     * Returns the ApiVersion following the given ApiVersion.
+     *
+     * @param apiVersion The API version to get the next from
+     * @return ApiVersion following given version, or {@code null} if {@code apiVersion} is the
+     *         highest valid version or {@link #VERSION_MAX}
+     */
+    public static ApiVersion getNextVersion(final ApiVersion apiVersion) {
+        final int next = apiVersion.ordinal + 1;
+        return next < ORDERED.length ? ORDERED[next] : null;
     }
 
     @Override
@@ -620,15 +1124,17 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
             return 1;
         }
 
-        if (this.isAlpha() ^ other.isAlpha()) {
-            return (this.isAlpha()) ? 1 : -1;
-        }
+        return Long.compare(this.sortKey, other.sortKey);
+    }
 
-        if (this.majorVersion == other.majorVersion) {
-            return Integer.compare(this.minorVersion, other.minorVersion);
-        }
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ApiVersion && ((ApiVersion) obj).sortKey == sortKey;
+    }
 
-        return Integer.compare(this.majorVersion, other.majorVersion);
+    @Override
+    public int hashCode() {
+        return Long.hashCode(sortKey);
     }
 
     @Override
@@ -636,8 +1142,41 @@ public class ApiVersion implements Comparable<ApiVersion>, Serializable {
         return value();
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        final ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("version", version);
+        fields.put("isDeprecated", isDeprecated);
+        fields.put("majorVersion", majorVersion);
+        fields.put("minorVersion", minorVersion);
+        fields.put("isAlpha", null);
+        out.writeFields();
+    }
+
+    /**
+     * Replaces a deserialized instance with the registered instance of the same version, so that
+     * versions remain safe to compare by identity and to use as identity keys after crossing a
+     * serialization boundary.
+     *
+     * @return the registered instance equal to this version
+     * @throws InvalidObjectException if this version is not known to this build
+     */
+    private Object readResolve() throws ObjectStreamException {
+        // Resolved from the version string only, as streams written by earlier releases hold none
+        // of the fields derived from it
+        if (version == null) {
+            throw new InvalidObjectException("Missing API version");
+        }
+        try {
+            return fromValue(version);
+        } catch (IllegalArgumentException e) {
+            final InvalidObjectException invalid = new InvalidObjectException("Unknown API version: " + version);
+            invalid.initCause(e);
+            throw invalid;
+        }
+    }
+
     public static ApiVersion[] values() {
-        return VERSIONS.values().toArray(new ApiVersion[VERSIONS.size()]);
+        return ORDERED.clone();
     }
 
     public static ApiVersion valueOf(String apiVersion) {
@@ -32,7 +32,9 @@ package com.vmware.vcloud.api.rest.version;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
@@ -56,28 +58,74 @@ public class ApiVersionCacheHelper {
     /**
      * This inner static class builds the cache upon construction. It also provides a read-only
      * contract to the cache maps.
+     * <p>
+     * Version strings, alias names and the empty {@code FUTURE} alias are all held in a single
+     * {@link KeyIndex}, so any key resolves with one hash table probe regardless of its kind.
+     * <p>
+     * The alias cache may be extended at runtime while other threads are resolving versions. The
+     * index is therefore immutable and replaced as a whole on every registration; reads never lock
+     * and always observe a complete set of aliases.
      */
     public static class ApiVersionCache {
 
-        private final Map<String, ApiVersion> cachedValues;
-        private final Map<String, ApiVersion> cachedAliasValues;
+        /**
+         * Current index. Only ever replaced while holding the lock of this cache.
+         */
+        private volatile KeyIndex index;
 
         ApiVersionCache() {
 
             // Build alias cache
-            cachedAliasValues = new HashMap<>();
+            final Map<String, ApiVersion> aliases = new HashMap<>();
             for (Alias v : Alias.values()) {
                 String key = v.name();
-                cachedAliasValues.put(key, v.getMapping());
+                aliases.put(key, v.getMapping());
             }
 
-            // Build ordinary cache
-            final Map<String, ApiVersion> directVerions = new HashMap<String, ApiVersion>();
-            for (ApiVersion v : ApiVersion.values()) {
-                String key = v.value();
-                directVerions.put(key, v);
-            }
-            cachedValues = Collections.unmodifiableMap(directVerions);
+            index = new KeyIndex(ApiVersion.values(), aliases);
+        }
+
+        /**
+         * Resolves a version string, alias or the {@code FUTURE} alias.
+         *
+         * @param key
+         *            the key to look up; may be {@code null}
+         * @return the entry for the key, or {@code null} if it is not known
+         */
+        KeyIndex.Entry lookup(String key) {
+            return key == null ? null : index.get(key);
+        }
+
+        /**
+         * Resolves a version string, alias or the {@code FUTURE} alias held in the given region
+         * of a character sequence without creating an intermediate {@link String}.
+         *
+         * @param value
+         *            sequence holding the key
+         * @param start
+         *            index of the first character of the key, inclusive
+         * @param end
+         *            index of the last character of the key, exclusive
+         * @return the entry for the key, or {@code null} if it is not known
+         */
+        KeyIndex.Entry lookup(CharSequence value, int start, int end) {
+            return index.get(value, start, end);
+        }
+
+        /**
+         * Resolves a version string, alias or the {@code FUTURE} alias held in the given region
+         * of an US-ASCII encoded byte array.
+         *
+         * @param value
+         *            bytes holding the key
+         * @param start
+         *            index of the first byte of the key, inclusive
+         * @param end
+         *            index of the last byte of the key, exclusive
+         * @return the entry for the key, or {@code null} if it is not known
+         */
+        KeyIndex.Entry lookup(byte[] value, int start, int end) {
+            return index.get(value, start, end);
         }
 
         /**
@@ -86,7 +134,8 @@ public class ApiVersionCacheHelper {
          * @return true if version string is a key in cache, false otherwise
          */
         boolean isCached(String key) {
-            return cachedValues.containsKey(key);
+            final KeyIndex.Entry entry = lookup(key);
+            return entry != null && entry.type == KeyIndex.Type.VERSION;
         }
 
         /**
@@ -95,32 +144,210 @@ public class ApiVersionCacheHelper {
          * @return true if alias string is a key in cache, false otherwise
          */
         boolean isAliasCached(String key) {
-            return cachedAliasValues.containsKey(key);
+            final KeyIndex.Entry entry = lookup(key);
+            return entry != null && entry.type == KeyIndex.Type.ALIAS;
         }
 
         ApiVersion getValue(String key) {
-            return cachedValues.get(key);
+            final KeyIndex.Entry entry = lookup(key);
+            return entry != null && entry.type == KeyIndex.Type.VERSION ? entry.version : null;
         }
 
         ApiVersion getAliasValue(String key) {
-            return cachedAliasValues.get(key);
+            final KeyIndex.Entry entry = lookup(key);
+            return entry != null && entry.type == KeyIndex.Type.ALIAS ? entry.version : null;
+        }
+
+        /**
+         * @return the current snapshot of the alias cache; a different instance is returned after
+         *         every registration of aliases
+         */
+        Map<String, ApiVersion> getAliasSnapshot() {
+            return index.aliases;
         }
 
+        /**
+         * @return an unmodifiable set of all version strings and aliases, shared by all callers
+         *         until aliases are next registered
+         */
         Set<String> getAllKeys() {
-            final Set<String> keys = new HashSet<String>();
-            keys.addAll(cachedValues.keySet());
-            keys.addAll(cachedAliasValues.keySet());
-            return keys;
+            return index.keys;
+        }
+
+        /**
+         * Add the specified value to the alias cache.
+         *
+         * @param alias alias to add
+         * @param apiVersion version the alias maps to
+         * @see #addAliasValues(Map)
+         */
+        public void addAliasValue(String alias, ApiVersion apiVersion) {
+            addAliasValues(Collections.singletonMap(alias, apiVersion));
         }
 
         /**
          * Add the specified values to the alias cache.
          * Note that existing values not in the map are kept as-is.
+         * <p>
+         * All aliases in the map are published at once: concurrent readers observe either none or
+         * all of them. Registering many aliases through a single call is therefore both cheaper and
+         * more consistent than registering them one at a time.
          *
          * @param aliasToApiVersion aliases to add
+         * @throws NullPointerException if any alias or version in the map is {@code null}
          */
-        public void addAliasValues(Map<String, ApiVersion> aliasToApiVersion) {
-            cachedAliasValues.putAll(aliasToApiVersion);
+        public synchronized void addAliasValues(Map<String, ApiVersion> aliasToApiVersion) {
+            final KeyIndex current = index;
+            final Map<String, ApiVersion> aliases = new HashMap<>(current.aliases);
+            for (Map.Entry<String, ApiVersion> entry : aliasToApiVersion.entrySet()) {
+                aliases.put(Objects.requireNonNull(entry.getKey(), "alias"),
+                        Objects.requireNonNull(entry.getValue(), "apiVersion"));
+            }
+            index = new KeyIndex(current.versions, aliases);
+        }
+    }
+
+    /**
+     * Immutable open-addressing hash table over all version strings, aliases and the empty
+     * {@code FUTURE} alias.
+     * <p>
+     * Keys are hashed as per {@link String#hashCode()}, so lookups of {@code String}s use their
+     * cached hash while lookups of character or byte regions can compute the same hash in place.
+     * The table is kept at most a quarter full, so nearly every lookup is resolved by its first
+     * probe.
+     */
+    static final class KeyIndex {
+
+        /**
+         * The kind of key an {@link Entry} was registered as.
+         */
+        enum Type {
+            VERSION, ALIAS, FUTURE
+        }
+
+        /**
+         * A single key of the index along with what it resolves to.
+         */
+        static final class Entry {
+            final String key;
+            final int hash;
+            final ApiVersion version;
+            final Type type;
+
+            Entry(String key, ApiVersion version, Type type) {
+                this.key = key;
+                this.hash = key.hashCode();
+                this.version = version;
+                this.type = type;
+            }
+        }
+
+        private static final String FUTURE_VERSION_ALIAS = "";
+
+        final ApiVersion[] versions;
+        final Map<String, ApiVersion> aliases;
+        final Set<String> keys;
+
+        private final Entry[] table;
+        private final int mask;
+
+        KeyIndex(ApiVersion[] versions, Map<String, ApiVersion> aliases) {
+            this.versions = versions;
+            this.aliases = Collections.unmodifiableMap(aliases);
+
+            // Later entries take precedence: versions shadow aliases, nothing shadows FUTURE
+            final Map<String, Entry> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, ApiVersion> alias : aliases.entrySet()) {
+                entries.put(alias.getKey(), new Entry(alias.getKey(), alias.getValue(), Type.ALIAS));
+            }
+            for (ApiVersion v : versions) {
+                entries.put(v.value(), new Entry(v.value(), v, Type.VERSION));
+            }
+            entries.put(FUTURE_VERSION_ALIAS,
+                    new Entry(FUTURE_VERSION_ALIAS, ApiVersion.VERSION_MAX, Type.FUTURE));
+
+            final Set<String> allKeys = new HashSet<>(entries.keySet());
+            allKeys.remove(FUTURE_VERSION_ALIAS);
+            this.keys = Collections.unmodifiableSet(allKeys);
+
+            int capacity = Integer.highestOneBit(entries.size() * 4 - 1) << 1;
+            this.table = new Entry[capacity];
+            this.mask = capacity - 1;
+            for (Entry entry : entries.values()) {
+                int slot = spread(entry.hash) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry;
+            }
+        }
+
+        Entry get(String key) {
+            final int hash = key.hashCode();
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                final Entry entry = table[slot];
+                if (entry == null || (entry.hash == hash && entry.key.equals(key))) {
+                    return entry;
+                }
+            }
+        }
+
+        Entry get(CharSequence value, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                final Entry entry = table[slot];
+                if (entry == null || (entry.hash == hash && regionEquals(entry.key, value, start, end))) {
+                    return entry;
+                }
+            }
+        }
+
+        Entry get(byte[] value, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + (value[i] & 0xFF);
+            }
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                final Entry entry = table[slot];
+                if (entry == null || (entry.hash == hash && regionEquals(entry.key, value, start, end))) {
+                    return entry;
+                }
+            }
+        }
+
+        /**
+         * Mixes the high bits of the hash into the low bits used to select a slot, as version
+         * strings differ mostly in their last characters.
+         */
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16) ^ (hash >>> 7);
+        }
+
+        private static boolean regionEquals(String key, CharSequence value, int start, int end) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (key.charAt(i - start) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean regionEquals(String key, byte[] value, int start, int end) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (key.charAt(i - start) != (value[i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
@@ -29,12 +29,20 @@
 
 package com.vmware.vcloud.api.rest.version;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -47,6 +55,19 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategy;
  * <p>
  * This global API version file allows each individual rest-api-docgenerator configuration to share
  * this data rather than duplicate it.
+ * <p>
+ * The same data can also be generated as source code for other consumers, so they can look versions
+ * and aliases up without parsing json at startup. The formats to generate are selected through the
+ * comma separated {@code apiVersionOutputFormats} system property, which defaults to {@code json}:
+ * <ul>
+ * <li>{@code json}: {@value #OUTPUT_FILE}, as consumed by the rest-api-docgenerator</li>
+ * <li>{@code java}: {@value #JAVA_CLASS_NAME}.java, resolving keys through a {@code switch}. Its
+ * package is set through the {@code apiVersionJavaPackage} system property and defaults to
+ * {@value #DEFAULT_JAVA_PACKAGE}</li>
+ * <li>{@code typescript}: {@value #TYPESCRIPT_OUTPUT_FILE}, a module of {@code const} tables</li>
+ * <li>{@code python}: {@value #PYTHON_OUTPUT_FILE}, a module of constant tables</li>
+ * </ul>
+ * Each holds the versions in ascending order and a map of aliases to the version they resolve to.
  */
 public class ApiVersionGenerator {
     private static class GlobalConfiguration {
@@ -54,8 +75,19 @@ public class ApiVersionGenerator {
         public Map<String, Map<String, String>> mapOfAliases = new HashMap<String, Map<String, String>>();
     }
 
+    private enum OutputFormat {
+        JSON, JAVA, TYPESCRIPT, PYTHON
+    }
+
     private static final String OUTPUT_FILE = "global.json";
 
+    private static final String JAVA_CLASS_NAME = "ApiVersions";
+    private static final String DEFAULT_JAVA_PACKAGE = "com.vmware.vcloud.api.rest.version.generated";
+    private static final String TYPESCRIPT_OUTPUT_FILE = "api-versions.ts";
+    private static final String PYTHON_OUTPUT_FILE = "api_versions.py";
+
+    private static final String GENERATED_NOTICE = "Generated by " + ApiVersionGenerator.class.getName() + ". Do not edit.";
+
     private static final String VCLOUD_KEY = "vcd";
 
     @SuppressWarnings("serial")
@@ -72,6 +104,15 @@ public class ApiVersionGenerator {
             throw new IllegalStateException("System property 'apiVersionOutputDirectory' needs to be set.");
         }
 
+        final List<OutputFormat> outputFormats = new ArrayList<>();
+        for (String format : System.getProperty("apiVersionOutputFormats", "json").split(",")) {
+            try {
+                outputFormats.add(OutputFormat.valueOf(format.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unknown API version output format: " + format, e);
+            }
+        }
+
         for (final ApiVersion apiVersion : ApiVersion.values()) {
             VCLOUD_VERSION_SET.add(apiVersion.value());
         }
@@ -82,33 +123,224 @@ public class ApiVersionGenerator {
             }
         }
 
-        final GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+        for (OutputFormat outputFormat : outputFormats) {
+            switch (outputFormat) {
+            case JSON:
+                final GlobalConfiguration globalConfiguration = new GlobalConfiguration();
 
-        globalConfiguration.mapOfVersionSet.put(VCLOUD_KEY, VCLOUD_VERSION_SET);
-        globalConfiguration.mapOfAliases.put(VCLOUD_KEY, VCLOUD_ALIAS_MAP);
+                globalConfiguration.mapOfVersionSet.put(VCLOUD_KEY, VCLOUD_VERSION_SET);
+                globalConfiguration.mapOfAliases.put(VCLOUD_KEY, VCLOUD_ALIAS_MAP);
 
-        final byte[] serializedConfiguration = serializeConfiguration(globalConfiguration);
-
-        writeSerializedConfiguration(serializedConfiguration, new File(outputDir, OUTPUT_FILE));
+                writeSerializedConfiguration(globalConfiguration, new File(outputDir, OUTPUT_FILE));
+                break;
+            case JAVA:
+                final String javaPackage = System.getProperty("apiVersionJavaPackage", DEFAULT_JAVA_PACKAGE);
+                final File packageDir = new File(outputDir, javaPackage.replace('.', File.separatorChar));
+                Files.createDirectories(packageDir.toPath());
+                try (Writer writer = newWriter(new File(packageDir, JAVA_CLASS_NAME + ".java"))) {
+                    writeJava(writer, javaPackage);
+                }
+                break;
+            case TYPESCRIPT:
+                try (Writer writer = newWriter(new File(outputDir, TYPESCRIPT_OUTPUT_FILE))) {
+                    writeTypescript(writer);
+                }
+                break;
+            case PYTHON:
+                try (Writer writer = newWriter(new File(outputDir, PYTHON_OUTPUT_FILE))) {
+                    writePython(writer);
+                }
+                break;
+            }
+        }
     }
 
-    private static byte[] serializeConfiguration(GlobalConfiguration globalConfiguration)
+    private static void writeSerializedConfiguration(GlobalConfiguration globalConfiguration, File outputFile)
             throws IOException {
 
         final ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setPropertyNamingStrategy(
                 PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
 
-        return objectMapper.writeValueAsBytes(globalConfiguration);
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            objectMapper.writeValue(outputStream, globalConfiguration);
+        }
     }
 
-    private static void writeSerializedConfiguration(byte[] serlializedConfiguration, File outputFile)
-            throws IOException {
+    private static Writer newWriter(File outputFile) throws IOException {
+        return Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8);
+    }
 
-        final FileOutputStream fileOutputStream = new FileOutputStream(outputFile);
+    /**
+     * Writes a Java class holding the versions and aliases, which resolves keys through a
+     * {@code switch} over string literals.
+     */
+    private static void writeJava(Writer writer, String javaPackage) throws IOException {
+        final List<String> versions = new ArrayList<>(VCLOUD_VERSION_SET);
 
-        fileOutputStream.write(serlializedConfiguration);
+        writer.append("package ").append(javaPackage).append(";\n\n")
+                .append("import java.util.Collections;\n")
+                .append("import java.util.LinkedHashMap;\n")
+                .append("import java.util.Map;\n\n")
+                .append("/**\n")
+                .append(" * API versions and the aliases thereof.\n")
+                .append(" * <p>\n")
+                .append(" * ").append(GENERATED_NOTICE).append("\n")
+                .append(" */\n")
+                .append("public final class ").append(JAVA_CLASS_NAME).append(" {\n\n")
+                .append("    /** All versions, in ascending order */\n")
+                .append("    private static final String[] VERSIONS = {");
+        for (int i = 0; i < versions.size(); i++) {
+            writer.append(i % 8 == 0 ? "\n            " : " ").append(javaString(versions.get(i))).append(',');
+        }
+        writer.append("\n    };\n\n")
+                .append("    /** Aliases, mapped to the version they resolve to */\n")
+                .append("    public static final Map<String, String> ALIASES;\n\n")
+                .append("    static {\n")
+                .append("        final Map<String, String> aliases = new LinkedHashMap<>();\n");
+        for (Map.Entry<String, String> alias : VCLOUD_ALIAS_MAP.entrySet()) {
+            writer.append("        aliases.put(").append(javaString(alias.getKey())).append(", ")
+                    .append(javaString(alias.getValue())).append(");\n");
+        }
+        writer.append("        ALIASES = Collections.unmodifiableMap(aliases);\n")
+                .append("    }\n\n")
+                .append("    private ").append(JAVA_CLASS_NAME).append("() {\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * @return the number of versions\n")
+                .append("     */\n")
+                .append("    public static int size() {\n")
+                .append("        return VERSIONS.length;\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * @param index index of the version, in ascending order\n")
+                .append("     * @return the version at that index\n")
+                .append("     */\n")
+                .append("    public static String get(int index) {\n")
+                .append("        return VERSIONS[index];\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * @param key a version or alias\n")
+                .append("     * @return the index of the version the key resolves to, or {@code -1} if it is unknown\n")
+                .append("     */\n")
+                .append("    public static int indexOf(String key) {\n")
+                .append("        if (key == null) {\n")
+                .append("            return -1;\n")
+                .append("        }\n")
+                .append("        switch (key) {\n");
+        for (int i = 0; i < versions.size(); i++) {
+            writer.append("        case ").append(javaString(versions.get(i))).append(": return ")
+                    .append(String.valueOf(i)).append(";\n");
+        }
+        for (Map.Entry<String, String> alias : VCLOUD_ALIAS_MAP.entrySet()) {
+            if (!VCLOUD_VERSION_SET.contains(alias.getKey())) {
+                writer.append("        case ").append(javaString(alias.getKey())).append(": return ")
+                        .append(String.valueOf(versions.indexOf(alias.getValue()))).append(";\n");
+            }
+        }
+        writer.append("        default: return -1;\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * @param key a version or alias\n")
+                .append("     * @return the version the key resolves to, or {@code null} if it is unknown\n")
+                .append("     */\n")
+                .append("    public static String resolve(String key) {\n")
+                .append("        final int index = indexOf(key);\n")
+                .append("        return index < 0 ? null : VERSIONS[index];\n")
+                .append("    }\n")
+                .append("}\n");
+    }
+
+    /**
+     * Writes a TypeScript module holding the versions and aliases as {@code const} tables.
+     */
+    private static void writeTypescript(Writer writer) throws IOException {
+        writer.append("// ").append(GENERATED_NOTICE).append("\n\n")
+                .append("/** All versions, in ascending order */\n")
+                .append("export const API_VERSIONS: ReadonlyArray<string> = Object.freeze([");
+        String separator = "\n    ";
+        for (String version : VCLOUD_VERSION_SET) {
+            writer.append(separator).append(scriptString(version));
+            separator = ",\n    ";
+        }
+        writer.append("\n]);\n\n")
+                .append("/** Aliases, mapped to the version they resolve to */\n")
+                .append("export const API_VERSION_ALIASES: { readonly [alias: string]: string } = Object.freeze({");
+        separator = "\n    ";
+        for (Map.Entry<String, String> alias : VCLOUD_ALIAS_MAP.entrySet()) {
+            writer.append(separator).append(scriptString(alias.getKey())).append(": ")
+                    .append(scriptString(alias.getValue()));
+            separator = ",\n    ";
+        }
+        writer.append("\n});\n\n")
+                .append("const API_VERSION_INDEX: { readonly [version: string]: number } = Object.freeze({");
+        separator = "\n    ";
+        int index = 0;
+        for (String version : VCLOUD_VERSION_SET) {
+            writer.append(separator).append(scriptString(version)).append(": ").append(String.valueOf(index++));
+            separator = ",\n    ";
+        }
+        writer.append("\n});\n\n")
+                .append("/**\n")
+                .append(" * @param key a version or alias\n")
+                .append(" * @returns the index into API_VERSIONS of the version the key resolves to, or -1 if it is unknown\n")
+                .append(" */\n")
+                .append("export function indexOfApiVersion(key: string): number {\n")
+                .append("    if (Object.prototype.hasOwnProperty.call(API_VERSION_INDEX, key)) {\n")
+                .append("        return API_VERSION_INDEX[key];\n")
+                .append("    }\n")
+                .append("    if (Object.prototype.hasOwnProperty.call(API_VERSION_ALIASES, key)) {\n")
+                .append("        return API_VERSION_INDEX[API_VERSION_ALIASES[key]];\n")
+                .append("    }\n")
+                .append("    return -1;\n")
+                .append("}\n\n")
+                .append("/**\n")
+                .append(" * @param key a version or alias\n")
+                .append(" * @returns the version the key resolves to, or undefined if it is unknown\n")
+                .append(" */\n")
+                .append("export function resolveApiVersion(key: string): string | undefined {\n")
+                .append("    const index = indexOfApiVersion(key);\n")
+                .append("    return index < 0 ? undefined : API_VERSIONS[index];\n")
+                .append("}\n");
+    }
+
+    /**
+     * Writes a Python module holding the versions and aliases as constant tables.
+     */
+    private static void writePython(Writer writer) throws IOException {
+        writer.append("# ").append(GENERATED_NOTICE).append("\n\n")
+                .append("# All versions, in ascending order\n")
+                .append("API_VERSIONS = (\n");
+        for (String version : VCLOUD_VERSION_SET) {
+            writer.append("    ").append(scriptString(version)).append(",\n");
+        }
+        writer.append(")\n\n")
+                .append("# Aliases, mapped to the version they resolve to\n")
+                .append("API_VERSION_ALIASES = {\n");
+        for (Map.Entry<String, String> alias : VCLOUD_ALIAS_MAP.entrySet()) {
+            writer.append("    ").append(scriptString(alias.getKey())).append(": ")
+                    .append(scriptString(alias.getValue())).append(",\n");
+        }
+        writer.append("}\n\n")
+                .append("_API_VERSION_INDEX = {version: index for index, version in enumerate(API_VERSIONS)}\n\n\n")
+                .append("def index_of_api_version(key):\n")
+                .append("    \"\"\"Returns the index into API_VERSIONS of the version or alias, or -1 if it is unknown.\"\"\"\n")
+                .append("    index = _API_VERSION_INDEX.get(key)\n")
+                .append("    if index is None and key in API_VERSION_ALIASES:\n")
+                .append("        index = _API_VERSION_INDEX[API_VERSION_ALIASES[key]]\n")
+                .append("    return -1 if index is None else index\n\n\n")
+                .append("def resolve_api_version(key):\n")
+                .append("    \"\"\"Returns the version the version or alias resolves to, or None if it is unknown.\"\"\"\n")
+                .append("    index = index_of_api_version(key)\n")
+                .append("    return None if index < 0 else API_VERSIONS[index]\n");
+    }
+
+    private static String javaString(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
 
-        fileOutputStream.close();
+    private static String scriptString(String value) {
+        return '\'' + value.replace("\\", "\\\\").replace("'", "\\'") + '\'';
     }
 }
@@ -0,0 +1,347 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Selects the {@link ApiVersion} to serve a request with, based on the {@code version} parameters
+ * of the media ranges in its {@code Accept} header.
+ * <p>
+ * Each media range may carry a {@code version} parameter holding either a version number or an
+ * alias, and optionally a {@code q} parameter. Versions that are not recognized, or that fall
+ * outside of the supported bounds, are ignored; as are media ranges with a quality of {@code 0}.
+ * Of the remaining versions the one with the highest quality wins, ties being broken in favour of
+ * the highest version. For example, given
+ *
+ * <pre>
+ * application/*+xml;version=34.0, application/*+json;version=35.0;q=0.9
+ * </pre>
+ *
+ * version {@code 34.0} is selected.
+ * <p>
+ * Clients typically send only a handful of distinct headers, so results are memoized per header
+ * value in a bounded cache. Cache hits take no lock; they only stamp the entry with the current
+ * value of a logical clock that advances on every insert. When the cache is full, an insert sweeps
+ * a few entries round robin and evicts the one used least recently among them, so eviction
+ * approximates LRU at a bounded cost per miss, and a flood of distinct headers does not stall
+ * requests for the headers already cached. Cached results are discarded once aliases are
+ * registered at runtime, as those may change how a header resolves.
+ *
+ * @since 10.2.2
+ */
+public class ApiVersionNegotiator {
+
+    /**
+     * Number of distinct headers for which results are cached by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 128;
+
+    private static final String VERSION_PARAMETER = "version";
+    private static final String QUALITY_PARAMETER = "q";
+
+    /**
+     * Qualities are handled in thousandths, the highest precision allowed by RFC 7231
+     */
+    private static final int MAX_QUALITY = 1000;
+
+    /**
+     * Number of entries considered for eviction on each insert into a full cache
+     */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ApiVersion minVersion;
+    private final ApiVersion maxVersion;
+    private final int maxCacheSize;
+
+    /**
+     * Results by header; only modified while holding {@link #evictionLock}
+     */
+    private final ConcurrentHashMap<String, Negotiation> cache = new ConcurrentHashMap<>();
+
+    private final Object evictionLock = new Object();
+
+    /**
+     * Logical clock, advanced on each insert; entries are stamped with it when used
+     */
+    private volatile long clock;
+
+    /**
+     * Position of the eviction sweep over {@link #cache}; guarded by {@link #evictionLock}
+     */
+    private Iterator<Map.Entry<String, Negotiation>> sweep;
+
+    /**
+     * Creates a negotiator accepting versions from {@link Alias#MIN_SUPPORTED} to
+     * {@link Alias#MAX_SUPPORTED}, inclusive.
+     */
+    public ApiVersionNegotiator() {
+        this(Alias.MIN_SUPPORTED.getMapping(), Alias.MAX_SUPPORTED.getMapping(), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param minVersion
+     *            lowest version that may be selected, inclusive
+     * @param maxVersion
+     *            highest version that may be selected, inclusive
+     * @param maxCacheSize
+     *            maximum number of distinct headers to cache results for
+     * @throws IllegalArgumentException
+     *             if {@code minVersion} is greater than {@code maxVersion} or
+     *             {@code maxCacheSize} is not positive
+     */
+    public ApiVersionNegotiator(ApiVersion minVersion, ApiVersion maxVersion, int maxCacheSize) {
+        if (minVersion.isGreaterThan(maxVersion)) {
+            throw new IllegalArgumentException(
+                    "Minimum version " + minVersion + " is greater than maximum version " + maxVersion);
+        }
+        if (maxCacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxCacheSize);
+        }
+        this.minVersion = minVersion;
+        this.maxVersion = maxVersion;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Selects the best version acceptable to the client.
+     *
+     * @param acceptHeader
+     *            raw value of the {@code Accept} header
+     * @return the selected version, or {@code null} if the header is {@code null} or holds no
+     *         acceptable version
+     */
+    public ApiVersion negotiate(String acceptHeader) {
+        if (acceptHeader == null) {
+            return null;
+        }
+
+        final Map<String, ApiVersion> aliases = ApiVersionCacheHelper.instance.getAliasSnapshot();
+        final Negotiation cached = cache.get(acceptHeader);
+        if (cached != null && cached.aliases == aliases) {
+            final long now = clock;
+            if (cached.lastUsed != now) {
+                cached.lastUsed = now;
+            }
+            return cached.result;
+        }
+
+        final ApiVersion result = resolve(acceptHeader);
+        synchronized (evictionLock) {
+            if (!cache.containsKey(acceptHeader) && cache.size() >= maxCacheSize) {
+                evict();
+            }
+            final long now = clock;
+            cache.put(acceptHeader, new Negotiation(aliases, result, now));
+            clock = now + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Discards all cached results.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            cache.clear();
+            sweep = null;
+        }
+    }
+
+    /**
+     * Removes the least recently used of the next few entries of the sweep. Must be called holding
+     * {@link #evictionLock}.
+     */
+    private void evict() {
+        Map.Entry<String, Negotiation> victim = null;
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE; i++) {
+            if (sweep == null || !sweep.hasNext()) {
+                sweep = cache.entrySet().iterator();
+                if (!sweep.hasNext()) {
+                    break;
+                }
+            }
+            final Map.Entry<String, Negotiation> candidate = sweep.next();
+            if (victim == null || candidate.getValue().lastUsed < victim.getValue().lastUsed) {
+                victim = candidate;
+            }
+        }
+        if (victim != null) {
+            cache.remove(victim.getKey(), victim.getValue());
+        }
+    }
+
+    /**
+     * Parses the header in place and selects the best version from it.
+     */
+    private ApiVersion resolve(String header) {
+        ApiVersion best = null;
+        int bestQuality = 0;
+
+        final int length = header.length();
+        int rangeStart = 0;
+        while (rangeStart < length) {
+            int rangeEnd = header.indexOf(',', rangeStart);
+            if (rangeEnd < 0) {
+                rangeEnd = length;
+            }
+
+            ApiVersion version = null;
+            int quality = MAX_QUALITY;
+            boolean acceptable = true;
+
+            int paramStart = header.indexOf(';', rangeStart);
+            while (paramStart >= 0 && paramStart < rangeEnd) {
+                int paramEnd = header.indexOf(';', paramStart + 1);
+                if (paramEnd < 0 || paramEnd > rangeEnd) {
+                    paramEnd = rangeEnd;
+                }
+
+                final int nameStart = skipWhitespace(header, paramStart + 1, paramEnd);
+                final int equals = header.indexOf('=', nameStart);
+                if (equals >= 0 && equals < paramEnd) {
+                    final int nameEnd = trimWhitespace(header, nameStart, equals);
+                    int valueStart = skipWhitespace(header, equals + 1, paramEnd);
+                    int valueEnd = trimWhitespace(header, valueStart, paramEnd);
+                    if (valueEnd - valueStart >= 2 && header.charAt(valueStart) == '"'
+                            && header.charAt(valueEnd - 1) == '"') {
+                        valueStart++;
+                        valueEnd--;
+                    }
+
+                    if (isParameter(header, nameStart, nameEnd, VERSION_PARAMETER)) {
+                        version = parseVersion(header, valueStart, valueEnd);
+                        acceptable &= version != null;
+                    } else if (isParameter(header, nameStart, nameEnd, QUALITY_PARAMETER)) {
+                        quality = parseQuality(header, valueStart, valueEnd);
+                    }
+                }
+                paramStart = paramEnd;
+            }
+
+            if (acceptable && version != null && quality > 0
+                    && (quality > bestQuality || (quality == bestQuality && version.isGreaterThan(best)))) {
+                best = version;
+                bestQuality = quality;
+            }
+            rangeStart = rangeEnd + 1;
+        }
+        return best;
+    }
+
+    /**
+     * @return the version held in the region if it is known and within bounds, {@code null}
+     *         otherwise
+     */
+    private ApiVersion parseVersion(String header, int start, int end) {
+        final ApiVersion version;
+        try {
+            version = ApiVersion.fromValue(header, start, end);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return version.isAtLeast(minVersion) && version.isAtMost(maxVersion) ? version : null;
+    }
+
+    /**
+     * @return the quality held in the region in thousandths, or {@code 0} if it is malformed or
+     *         greater than {@code 1}
+     */
+    private static int parseQuality(String header, int start, int end) {
+        if (start == end) {
+            return 0;
+        }
+        final char unit = header.charAt(start);
+        if (unit != '0' && unit != '1') {
+            return 0;
+        }
+        int quality = (unit - '0') * MAX_QUALITY;
+        if (start + 1 == end) {
+            return quality;
+        }
+        if (header.charAt(start + 1) != '.' || end - start > 5) {
+            return 0;
+        }
+        int scale = MAX_QUALITY / 10;
+        for (int i = start + 2; i < end; i++, scale /= 10) {
+            final int digit = header.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            quality += digit * scale;
+        }
+        return quality > MAX_QUALITY ? 0 : quality;
+    }
+
+    private static boolean isParameter(String header, int start, int end, String name) {
+        return end - start == name.length() && header.regionMatches(true, start, name, 0, name.length());
+    }
+
+    private static int skipWhitespace(String header, int start, int end) {
+        while (start < end && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimWhitespace(String header, int start, int end) {
+        while (end > start && Character.isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Cached outcome of negotiating a single header value.
+     */
+    private static final class Negotiation {
+        /**
+         * The alias snapshot {@link #result} was resolved against
+         */
+        final Map<String, ApiVersion> aliases;
+        final ApiVersion result;
+
+        /**
+         * Value of {@link ApiVersionNegotiator#clock} when this was last used. Written without
+         * synchronization, as eviction only needs it to be approximately current.
+         */
+        long lastUsed;
+
+        Negotiation(Map<String, ApiVersion> aliases, ApiVersion result, long lastUsed) {
+            this.aliases = aliases;
+            this.result = result;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
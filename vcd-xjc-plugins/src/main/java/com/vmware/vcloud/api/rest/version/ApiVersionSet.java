@@ -0,0 +1,386 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.vmware.vcloud.api.annotation.Supported;
+
+/**
+ * Immutable set of valid API versions, backed by a bitset over {@link ApiVersion#ordinal()}.
+ * <p>
+ * Set operations such as {@link #union(ApiVersionSet)} and {@link #intersection(ApiVersionSet)}
+ * work a word of 64 versions at a time, and iteration is in ascending version order.
+ * {@link ApiVersion#VERSION_MAX} is not a valid version and is never a member.
+ * <p>
+ * The serialized form holds the value of each member, so it does not depend on ordinals, which are
+ * only stable for a given build of {@link ApiVersion}.
+ *
+ * @since 10.2.2
+ */
+public final class ApiVersionSet implements Iterable<ApiVersion>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ApiVersionSet EMPTY = new ApiVersionSet(new long[wordCount()]);
+
+    private static final ApiVersionSet ALL = range(0, ApiVersion.versionCount());
+
+    private final long[] words;
+
+    ApiVersionSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @return the empty set
+     */
+    public static ApiVersionSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the set of all valid versions
+     */
+    public static ApiVersionSet all() {
+        return ALL;
+    }
+
+    /**
+     * @param versions the versions
+     * @return the set of the given versions
+     * @throws IllegalArgumentException if any of the versions is {@link ApiVersion#VERSION_MAX}
+     */
+    public static ApiVersionSet of(ApiVersion... versions) {
+        return of(Arrays.asList(versions));
+    }
+
+    /**
+     * @param versions the versions
+     * @return the set of the given versions
+     * @throws IllegalArgumentException if any of the versions is {@link ApiVersion#VERSION_MAX}
+     */
+    public static ApiVersionSet of(Collection<ApiVersion> versions) {
+        final long[] words = new long[wordCount()];
+        for (ApiVersion version : versions) {
+            final int ordinal = version.ordinal();
+            if (ordinal >= ApiVersion.versionCount()) {
+                throw new IllegalArgumentException("Not a valid API version: " + version);
+            }
+            words[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return new ApiVersionSet(words);
+    }
+
+    /**
+     * Returns the versions between the min and max versions, consistent with
+     * {@link ApiVersion#getRange(ApiVersion, ApiVersion)}.
+     *
+     * @param minApiVersion Min version, included
+     * @param maxApiVersion Max version, included
+     * @return set of the versions in range [min..max]
+     */
+    public static ApiVersionSet range(ApiVersion minApiVersion, ApiVersion maxApiVersion) {
+        return range(minApiVersion.ordinal(), Math.min(maxApiVersion.ordinal(), ApiVersion.versionCount() - 1) + 1);
+    }
+
+    /**
+     * Returns the versions in the range of the given annotation, that is from its
+     * {@code addedIn} version included to its {@code removedIn} version excluded.
+     *
+     * @param supported the supported range
+     * @return set of the versions for which {@link ApiVersion#isSupported(Supported)} holds
+     * @throws IllegalArgumentException if either bound is not recognized
+     */
+    public static ApiVersionSet supportedBy(Supported supported) {
+        if (supported == null) {
+            return ALL;
+        }
+        return range(ApiVersion.fromValue(supported.addedIn()).ordinal(),
+                Math.min(ApiVersion.fromValue(supported.removedIn()).ordinal(), ApiVersion.versionCount()));
+    }
+
+    /**
+     * @param from ordinal of the first member, included
+     * @param to ordinal past the last member, excluded
+     */
+    private static ApiVersionSet range(int from, int to) {
+        return new ApiVersionSet(rangeWords(from, to, wordCount()));
+    }
+
+    /**
+     * @param from ordinal of the first member, included
+     * @param to ordinal past the last member, excluded
+     * @param wordCount length of the bitset
+     * @return bitset of the ordinals in range
+     */
+    static long[] rangeWords(int from, int to, int wordCount) {
+        final long[] words = new long[wordCount];
+        if (from < to) {
+            final int firstWord = from >>> 6;
+            final int lastWord = (to - 1) >>> 6;
+            for (int i = firstWord; i <= lastWord; i++) {
+                words[i] = -1L;
+            }
+            words[firstWord] &= -1L << from;
+            words[lastWord] &= -1L >>> -to;
+        }
+        return words;
+    }
+
+    private static int wordCount() {
+        return (ApiVersion.versionCount() + 63) >>> 6;
+    }
+
+    /**
+     * @param version the version
+     * @return {@code true} if the version is a member of this set
+     */
+    public boolean contains(ApiVersion version) {
+        final int ordinal = version.ordinal();
+        return ordinal < ApiVersion.versionCount() && (words[ordinal >>> 6] & 1L << ordinal) != 0;
+    }
+
+    /**
+     * @return the number of versions in this set
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return {@code true} if this set has no members
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other the other set
+     * @return the set of versions in either set
+     */
+    public ApiVersionSet union(ApiVersionSet other) {
+        final long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new ApiVersionSet(result);
+    }
+
+    /**
+     * @param other the other set
+     * @return the set of versions in both sets
+     */
+    public ApiVersionSet intersection(ApiVersionSet other) {
+        final long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new ApiVersionSet(result);
+    }
+
+    /**
+     * @param other the other set
+     * @return the set of versions in this set but not in {@code other}
+     */
+    public ApiVersionSet difference(ApiVersionSet other) {
+        final long[] result = new long[words.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & ~other.words[i];
+        }
+        return new ApiVersionSet(result);
+    }
+
+    /**
+     * @return the set of valid versions not in this set
+     */
+    public ApiVersionSet complement() {
+        return ALL.difference(this);
+    }
+
+    /**
+     * @return the lowest version in this set
+     * @throws NoSuchElementException if this set is empty
+     */
+    public ApiVersion first() {
+        final int ordinal = nextOrdinal(0);
+        if (ordinal < 0) {
+            throw new NoSuchElementException();
+        }
+        return ApiVersion.fromOrdinal(ordinal);
+    }
+
+    /**
+     * @return the highest version in this set
+     * @throws NoSuchElementException if this set is empty
+     */
+    public ApiVersion last() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return ApiVersion.fromOrdinal((i << 6) + 63 - Long.numberOfLeadingZeros(words[i]));
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * @return the versions of this set, in ascending order
+     */
+    public List<ApiVersion> toList() {
+        final List<ApiVersion> list = new ArrayList<>(size());
+        for (ApiVersion version : this) {
+            list.add(version);
+        }
+        return list;
+    }
+
+    /**
+     * @return iterator over the versions of this set, in ascending order
+     */
+    @Override
+    public Iterator<ApiVersion> iterator() {
+        return new Iterator<ApiVersion>() {
+            private int next = nextOrdinal(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public ApiVersion next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                final ApiVersion version = ApiVersion.fromOrdinal(next);
+                next = nextOrdinal(next + 1);
+                return version;
+            }
+        };
+    }
+
+    /**
+     * @return the lowest member ordinal at or above {@code from}, or {@code -1} if there is none
+     */
+    int nextOrdinal(int from) {
+        int i = from >>> 6;
+        if (i >= words.length) {
+            return -1;
+        }
+        long word = words[i] & -1L << from;
+        while (word == 0) {
+            if (++i == words.length) {
+                return -1;
+            }
+            word = words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ApiVersionSet && Arrays.equals(words, ((ApiVersionSet) obj).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private Object writeReplace() {
+        return new SerializationProxy(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
+    /**
+     * Serialized form of {@link ApiVersionSet}: the value of each member.
+     * <p>
+     * Members are listed individually rather than as runs, as a version added between two
+     * members by a later build must not become a member when the set is read back.
+     */
+    private static final class SerializationProxy implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] versions;
+
+        SerializationProxy(ApiVersionSet set) {
+            final String[] values = new String[set.size()];
+            int i = 0;
+            for (ApiVersion version : set) {
+                values[i++] = version.value();
+            }
+            this.versions = values;
+        }
+
+        private Object readResolve() throws InvalidObjectException {
+            final long[] words = new long[wordCount()];
+            try {
+                for (String value : versions) {
+                    final int ordinal = ApiVersion.fromValue(value).ordinal();
+                    if (ordinal >= ApiVersion.versionCount()) {
+                        throw new InvalidObjectException("Not a valid API version: " + value);
+                    }
+                    words[ordinal >>> 6] |= 1L << ordinal;
+                }
+            } catch (IllegalArgumentException e) {
+                final InvalidObjectException invalid = new InvalidObjectException(e.getMessage());
+                invalid.initCause(e);
+                throw invalid;
+            }
+            return new ApiVersionSet(words);
+        }
+    }
+}
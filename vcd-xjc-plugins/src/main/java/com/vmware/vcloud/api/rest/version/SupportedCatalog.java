@@ -0,0 +1,299 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vmware.vcloud.api.annotation.Supported;
+
+/**
+ * Index of the {@link Supported} ranges of all generated types, properties and enum constants,
+ * read from the catalogs emitted at build time by the {@code RestApiVersionsPlugin} when run with
+ * its {@code -genSupportedCatalog} option.
+ * <p>
+ * This allows finding out what exists in a given version without reflecting over every schema
+ * class: for every version the catalog holds the indices of the elements supported in it, so
+ * {@link #getSupported(Kind, ApiVersion)} is a single array read.
+ * <p>
+ * Each catalog is a UTF-8 text resource at {@value #RESOURCE_NAME} with one tab separated line per
+ * element: the {@linkplain Kind#getCode() code} of its kind, its {@code addedIn} version, its
+ * {@code removedIn} version (empty if none) and its name. Types are named by their fully qualified
+ * class name and properties and enum constants by that of their class, followed by {@code #} and
+ * the property or constant name. Catalogs of all schema modules on the class path are merged.
+ * <p>
+ * Bounds given as aliases are resolved when the catalog is loaded. Instances are immutable and
+ * safe for use by multiple threads.
+ *
+ * @since 10.2.2
+ */
+public final class SupportedCatalog {
+
+    /**
+     * Class path location of the catalog resources
+     */
+    public static final String RESOURCE_NAME = "com/vmware/vcloud/api/rest/version/supported-catalog.tsv";
+
+    /**
+     * The kind of element a catalog entry describes.
+     */
+    public enum Kind {
+        TYPE('T'), PROPERTY('P'), ENUM_CONSTANT('C');
+
+        private final char code;
+
+        Kind(char code) {
+            this.code = code;
+        }
+
+        /**
+         * @return the code of this kind in the catalog resource
+         */
+        public char getCode() {
+            return code;
+        }
+
+        private static Kind fromCode(char code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final SupportedCatalog INSTANCE;
+
+        static {
+            try {
+                INSTANCE = load(SupportedCatalog.class.getClassLoader());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private final Map<Kind, Table> tables;
+
+    private SupportedCatalog(Map<Kind, Table> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * @return the catalog of the elements visible to the class loader of this class, loaded on
+     *         first use
+     * @throws UncheckedIOException if a catalog cannot be read
+     */
+    public static SupportedCatalog getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Loads and merges all catalogs visible to the given class loader. Elements listed in more
+     * than one catalog keep the range they were first listed with.
+     *
+     * @param classLoader the class loader to find catalogs through
+     * @return the catalog
+     * @throws IOException if a catalog cannot be read or is malformed
+     */
+    public static SupportedCatalog load(ClassLoader classLoader) throws IOException {
+        final Map<Kind, TableBuilder> builders = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            builders.put(kind, new TableBuilder());
+        }
+
+        final Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+        while (resources.hasMoreElements()) {
+            final URL resource = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isEmpty() || line.charAt(0) == '#') {
+                        continue;
+                    }
+                    final String[] fields = line.split("\t", -1);
+                    final Kind kind = fields[0].length() == 1 ? Kind.fromCode(fields[0].charAt(0)) : null;
+                    if (fields.length != 4 || kind == null) {
+                        throw new IOException("Malformed entry at " + resource + ":" + lineNumber);
+                    }
+                    try {
+                        builders.get(kind).add(fields[3],
+                                ApiVersion.fromValue(fields[1]), ApiVersion.fromValue(fields[2]));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Invalid version range at " + resource + ":" + lineNumber, e);
+                    }
+                }
+            }
+        }
+
+        final Map<Kind, Table> tables = new EnumMap<>(Kind.class);
+        for (Map.Entry<Kind, TableBuilder> entry : builders.entrySet()) {
+            tables.put(entry.getKey(), entry.getValue().build());
+        }
+        return new SupportedCatalog(tables);
+    }
+
+    /**
+     * @param kind the kind of elements
+     * @param version the version
+     * @return unmodifiable list of the names of the elements of the given kind supported in the
+     *         given version, in catalog order, shared between callers
+     */
+    public List<String> getSupported(Kind kind, ApiVersion version) {
+        return tables.get(kind).byOrdinal.get(version.ordinal());
+    }
+
+    /**
+     * @param kind the kind of the element
+     * @param name the name of the element
+     * @return {@code true} if the catalog lists the element
+     */
+    public boolean contains(Kind kind, String name) {
+        return tables.get(kind).index.containsKey(name);
+    }
+
+    /**
+     * @param kind the kind of the element
+     * @param name the name of the element
+     * @param version the version
+     * @return {@code true} if the element is supported in the given version, or if the catalog
+     *         does not list it, consistent with {@link ApiVersion#isSupported(Supported)} for
+     *         elements without a {@link Supported} annotation
+     */
+    public boolean isSupported(Kind kind, String name, ApiVersion version) {
+        final Table table = tables.get(kind);
+        final Integer index = table.index.get(name);
+        if (index == null) {
+            return true;
+        }
+        final long range = table.ranges[index];
+        final int ordinal = version.ordinal();
+        return (int) (range >>> 32) <= ordinal && ordinal < (int) range;
+    }
+
+    /**
+     * Catalog entries of one {@link Kind}.
+     */
+    private static final class Table {
+        final String[] names;
+
+        /**
+         * Ordinal of {@code addedIn} in the high and that of {@code removedIn} in the low 32 bits,
+         * per element
+         */
+        final long[] ranges;
+
+        final Map<String, Integer> index;
+
+        /**
+         * Names of the elements supported in each version, indexed by ordinal including that of
+         * {@link ApiVersion#VERSION_MAX}
+         */
+        final List<List<String>> byOrdinal;
+
+        Table(String[] names, long[] ranges, Map<String, Integer> index, int[][] byOrdinal) {
+            this.names = names;
+            this.ranges = ranges;
+            this.index = index;
+
+            final List<List<String>> views = new ArrayList<>(byOrdinal.length);
+            for (int[] indices : byOrdinal) {
+                views.add(new AbstractList<String>() {
+                    @Override
+                    public String get(int i) {
+                        return names[indices[i]];
+                    }
+
+                    @Override
+                    public int size() {
+                        return indices.length;
+                    }
+                });
+            }
+            this.byOrdinal = Collections.unmodifiableList(views);
+        }
+    }
+
+    private static final class TableBuilder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Long> ranges = new ArrayList<>();
+        private final Map<String, Integer> index = new HashMap<>();
+
+        void add(String name, ApiVersion addedIn, ApiVersion removedIn) {
+            if (index.putIfAbsent(name, names.size()) == null) {
+                names.add(name);
+                ranges.add((long) addedIn.ordinal() << 32 | removedIn.ordinal());
+            }
+        }
+
+        Table build() {
+            final long[] packed = new long[ranges.size()];
+            final int rows = ApiVersion.versionCount() + 1;
+            final int[] counts = new int[rows];
+            for (int i = 0; i < packed.length; i++) {
+                packed[i] = ranges.get(i);
+                for (int ordinal = (int) (packed[i] >>> 32); ordinal < (int) packed[i]; ordinal++) {
+                    counts[ordinal]++;
+                }
+            }
+
+            final int[][] byOrdinal = new int[rows][];
+            for (int ordinal = 0; ordinal < rows; ordinal++) {
+                byOrdinal[ordinal] = new int[counts[ordinal]];
+                counts[ordinal] = 0;
+            }
+            for (int i = 0; i < packed.length; i++) {
+                for (int ordinal = (int) (packed[i] >>> 32); ordinal < (int) packed[i]; ordinal++) {
+                    byOrdinal[ordinal][counts[ordinal]++] = i;
+                }
+            }
+
+            return new Table(names.toArray(new String[names.size()]), packed,
+                    Collections.unmodifiableMap(index), byOrdinal);
+        }
+    }
+}
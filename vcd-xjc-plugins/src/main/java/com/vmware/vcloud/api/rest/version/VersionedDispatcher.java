@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.vmware.vcloud.api.annotation.Supported;
+
+/**
+ * Routes an {@link ApiVersion} to the handler registered for the range of versions it falls in.
+ * <p>
+ * Ranges are compiled into a table indexed by {@link ApiVersion#ordinal()}, so a lookup is a
+ * single array read regardless of the number of ranges, replacing chains of
+ * {@link ApiVersion#isInRange(ApiVersion, ApiVersion)} checks:
+ *
+ * <pre>
+ * private static final VersionedDispatcher&lt;Handler&gt; HANDLERS = VersionedDispatcher.&lt;Handler&gt;builder()
+ *         .add(ApiVersion.VERSION_1_0, ApiVersion.VERSION_33_0, legacyHandler)
+ *         .add(ApiVersion.VERSION_33_0, ApiVersion.VERSION_MAX, currentHandler)
+ *         .build();
+ * ...
+ * HANDLERS.get(requestVersion).handle(request);
+ * </pre>
+ *
+ * As with {@link Supported}, a range includes its lower bound and excludes its upper one. Ranges
+ * given as {@link Supported} annotations may use aliases, which are resolved when the dispatcher
+ * is built. Instances are immutable and safe for use by multiple threads.
+ *
+ * @param <T> type of the handlers
+ * @since 10.2.2
+ */
+public final class VersionedDispatcher<T> {
+
+    private final Object[] handlers;
+
+    private VersionedDispatcher(Object[] handlers) {
+        this.handlers = handlers;
+    }
+
+    /**
+     * @param <T> type of the handlers
+     * @return a builder for a new dispatcher
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @param version the version to route
+     * @return the handler whose range includes {@code version}, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public T get(ApiVersion version) {
+        final int ordinal = version.ordinal();
+        return ordinal < handlers.length ? (T) handlers[ordinal] : null;
+    }
+
+    /**
+     * Builder for {@link VersionedDispatcher}. Not safe for use by multiple threads.
+     *
+     * @param <T> type of the handlers
+     */
+    public static final class Builder<T> {
+
+        private final List<Route<T>> routes = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Routes versions in range [addedIn..removedIn) to the given handler.
+         *
+         * @param addedIn lowest version routed to {@code handler}, included
+         * @param removedIn version from which on versions are no longer routed to {@code handler},
+         *            excluded; {@link ApiVersion#VERSION_MAX} for no upper bound
+         * @param handler the handler
+         * @return this builder
+         * @throws IllegalArgumentException if the range is empty
+         */
+        public Builder<T> add(ApiVersion addedIn, ApiVersion removedIn, T handler) {
+            Objects.requireNonNull(addedIn, "addedIn");
+            Objects.requireNonNull(removedIn, "removedIn");
+            Objects.requireNonNull(handler, "handler");
+            if (addedIn.compareTo(removedIn) >= 0) {
+                throw new IllegalArgumentException(
+                        "Empty version range [" + addedIn + ".." + rangeEnd(removedIn) + ")");
+            }
+            routes.add(new Route<>(addedIn, removedIn, handler));
+            return this;
+        }
+
+        /**
+         * Routes versions in the range of the given annotation to the given handler.
+         *
+         * @param supported the range
+         * @param handler the handler
+         * @return this builder
+         * @throws IllegalArgumentException if the range is empty or a bound is not recognized
+         * @see #add(ApiVersion, ApiVersion, Object)
+         */
+        public Builder<T> add(Supported supported, T handler) {
+            return add(ApiVersion.fromValue(supported.addedIn()), ApiVersion.fromValue(supported.removedIn()),
+                    handler);
+        }
+
+        /**
+         * @return a dispatcher for the ranges added so far
+         * @throws IllegalArgumentException if any two ranges overlap
+         */
+        public VersionedDispatcher<T> build() {
+            final Object[] handlers = new Object[ApiVersion.versionCount()];
+            final Route<?>[] owners = new Route<?>[handlers.length];
+            for (Route<T> route : routes) {
+                final int end = Math.min(route.removedIn.ordinal(), handlers.length);
+                for (int ordinal = route.addedIn.ordinal(); ordinal < end; ordinal++) {
+                    if (owners[ordinal] != null) {
+                        throw new IllegalArgumentException("Version range " + route + " overlaps "
+                                + owners[ordinal] + " at " + ApiVersion.fromOrdinal(ordinal));
+                    }
+                    owners[ordinal] = route;
+                    handlers[ordinal] = route.handler;
+                }
+            }
+            return new VersionedDispatcher<>(handlers);
+        }
+    }
+
+    private static String rangeEnd(ApiVersion removedIn) {
+        return removedIn == ApiVersion.VERSION_MAX ? "MAX" : removedIn.value();
+    }
+
+    private static final class Route<T> {
+        final ApiVersion addedIn;
+        final ApiVersion removedIn;
+        final T handler;
+
+        Route(ApiVersion addedIn, ApiVersion removedIn, T handler) {
+            this.addedIn = addedIn;
+            this.removedIn = removedIn;
+            this.handler = handler;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + addedIn + ".." + rangeEnd(removedIn) + ")";
+        }
+    }
+}
@@ -30,9 +30,12 @@
 package com.vmware.vcloud.xjcplugin;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -54,9 +57,14 @@ import com.sun.codemodel.JEnumConstant;
 import com.sun.codemodel.JExpr;
 import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.codemodel.fmt.JTextFile;
 import com.sun.tools.xjc.BadCommandLineException;
 import com.sun.tools.xjc.Options;
 import com.sun.tools.xjc.Plugin;
@@ -71,7 +79,10 @@ import com.sun.tools.xjc.outline.FieldOutline;
 import com.sun.tools.xjc.outline.Outline;
 import com.vmware.vcloud.api.annotation.ContentType;
 import com.vmware.vcloud.api.annotation.Supported;
+import com.vmware.vcloud.api.enums.NameVersionHolder;
 import com.vmware.vcloud.api.rest.version.ApiVersion;
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+import com.vmware.vcloud.api.rest.version.SupportedCatalog;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jvnet.jaxb2_commons.util.CustomizationUtils;
@@ -126,6 +137,16 @@ import javax.ws.rs.core.MultivaluedMap;
  * <p>
  * Lastly, the plugin will try to include the name of the source {@code .xsd} file
  * and the approximate line and column numbers in the class javadoc
+ * <p>
+ * With the additional {@code -genSupportedCatalog} parameter, the plugin also emits the
+ * {@link Supported} ranges of all generated types, properties and enum constants as a resource,
+ * which {@link SupportedCatalog} reads at runtime in lieu of reflecting over the generated classes.
+ * <p>
+ * With the additional {@code -enumNameVersionHolder} parameter, generated enums resolve
+ * {@code fromValue} through a frozen {@link NameVersionHolder} rather than by scanning their
+ * constants, and implement {@link com.vmware.vcloud.api.rest.version.Supported} with the ranges of
+ * their constants, which enables the version-aware
+ * {@link NameVersionHolder#fromValue(String, ApiVersion)}.
  * </p>
  */
 public class RestApiVersionsPlugin extends Plugin {
@@ -144,12 +165,24 @@ public class RestApiVersionsPlugin extends Plugin {
     private static final String ELEMENT_CONTENT_TYPE = "content-type";
     private static final String PLUGIN_OPTION = "Xrest-api";
     private static final String SKIP_MEDIATYPE_GEN = "-skipMediaTypeGen";
+    private static final String GEN_SUPPORTED_CATALOG = "-genSupportedCatalog";
+    private static final String ENUM_NAME_VERSION_HOLDER = "-enumNameVersionHolder";
+    private static final String ENUM_FROM_VALUE = "fromValue";
+    private static final String ENUM_VALUES_FIELD = "VALUES";
     private static final String CONTENT_TYPE_CONST = "CONTENT_TYPE";
     private String version = "1.5";
 
+    /**
+     * Public {@link ApiVersion} constants by the version they hold
+     */
+    private static final Map<ApiVersion, Field> API_VERSION_CONSTANTS = apiVersionConstants();
+
     private final Map<JFieldVar, JDefinedClass> MEDIATYPE_TYPE_MAP = new HashMap<>();
     private final MultivaluedMap<String, ClassOutline> CONTENTTYPE_TYPES_MAP = new MultivaluedHashMap<>();
+    private final StringBuilder supportedCatalog = new StringBuilder();
     boolean genMediaTypeInfo = true;
+    boolean genSupportedCatalog = false;
+    boolean enumNameVersionHolder = false;
 
     @Override
     public String getOptionName() {
@@ -162,6 +195,14 @@ public class RestApiVersionsPlugin extends Plugin {
             genMediaTypeInfo = false;
             return 1;
         }
+        if (GEN_SUPPORTED_CATALOG.equals(args[i])) {
+            genSupportedCatalog = true;
+            return 1;
+        }
+        if (ENUM_NAME_VERSION_HOLDER.equals(args[i])) {
+            enumNameVersionHolder = true;
+            return 1;
+        }
         return 0;
     }
 
@@ -181,7 +222,11 @@ public class RestApiVersionsPlugin extends Plugin {
     @Override
     public String getUsage() {
         return "  -" + PLUGIN_OPTION + " [default-version]"
-                + ": enables the plugin and sets the default version to be used as \"added-in\" elements.\n";
+                + ": enables the plugin and sets the default version to be used as \"added-in\" elements.\n"
+                + "  " + GEN_SUPPORTED_CATALOG
+                + ": also emits the supported versions of all generated elements as a catalog resource.\n"
+                + "  " + ENUM_NAME_VERSION_HOLDER
+                + ": resolves generated enums through a NameVersionHolder.\n";
     }
 
     @Override
@@ -208,6 +253,10 @@ public class RestApiVersionsPlugin extends Plugin {
         if (genMediaTypeInfo) {
             instantiateMediaTypesConstantsClass(outline);
         }
+
+        if (genSupportedCatalog) {
+            addSupportedCatalogResource(outline);
+        }
         return true;
     }
 
@@ -263,6 +312,37 @@ public class RestApiVersionsPlugin extends Plugin {
         }
     }
 
+    private void addSupportedCatalogResource(Outline outline) {
+        final String resourceName = SupportedCatalog.RESOURCE_NAME;
+        final int packageEnd = resourceName.lastIndexOf('/');
+        final JPackage _package = outline.getCodeModel()._package(resourceName.substring(0, packageEnd).replace('/', '.'));
+
+        final JTextFile catalog = new JTextFile(resourceName.substring(packageEnd + 1));
+        catalog.setContents(supportedCatalog.toString());
+        _package.addResourceFile(catalog);
+    }
+
+    /**
+     * Appends an entry for the given element to the {@link SupportedCatalog} resource, if enabled.
+     *
+     * @param kind
+     *            the kind of the element
+     * @param name
+     *            the name of the element, as documented by {@link SupportedCatalog}
+     * @param customizations
+     *            schema customizations for this element
+     */
+    private void addSupportedCatalogEntry(SupportedCatalog.Kind kind, String name, CCustomizations customizations) {
+        if (!genSupportedCatalog) {
+            return;
+        }
+        final String[] range = getSupportedRange(customizations);
+        supportedCatalog.append(kind.getCode()).append('\t')
+                .append(range[0]).append('\t')
+                .append(StringUtils.defaultString(range[1])).append('\t')
+                .append(name).append('\n');
+    }
+
     /**
      * Annotates {@link ElementOutline}.
      *
@@ -273,6 +353,9 @@ public class RestApiVersionsPlugin extends Plugin {
         CCustomizations customizations = CustomizationUtils.getCustomizations(elementOutline);
         addSupportedAnnotation(elementOutline.implClass, customizations);
         addSourceLocationComment(elementOutline.implClass, elementOutline.target.getLocator());
+        if (elementOutline.implClass != null) {
+            addSupportedCatalogEntry(SupportedCatalog.Kind.TYPE, elementOutline.implClass.fullName(), customizations);
+        }
     }
 
     /**
@@ -288,6 +371,7 @@ public class RestApiVersionsPlugin extends Plugin {
         addSupportedAnnotation(implClass, customizations);
         addContentTypeAnnotation(classOutline, customizations);
         addSourceLocationComment(implClass, classOutline.target.getLocator());
+        addSupportedCatalogEntry(SupportedCatalog.Kind.TYPE, implClass.fullName(), customizations);
 
         for (FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
             processFieldOutline(fieldOutline, errorHandler);
@@ -305,6 +389,8 @@ public class RestApiVersionsPlugin extends Plugin {
         addSupportedAnnotation(FieldAccessorUtils.field(fieldOutline), customizations);
         addSupportedAnnotation(FieldAccessorUtils.getter(fieldOutline), customizations);
         addSupportedAnnotation(FieldAccessorUtils.setter(fieldOutline), customizations);
+        addSupportedCatalogEntry(SupportedCatalog.Kind.PROPERTY, fieldOutline.parent().implClass.fullName()
+                + '#' + fieldOutline.getPropertyInfo().getName(false), customizations);
     }
 
     /**
@@ -317,21 +403,196 @@ public class RestApiVersionsPlugin extends Plugin {
         CCustomizations customizations = CustomizationUtils.getCustomizations(enumOutline);
         addSupportedAnnotation(enumOutline.clazz, customizations);
         addSourceLocationComment(enumOutline.clazz, enumOutline.target.getLocator());
+        addSupportedCatalogEntry(SupportedCatalog.Kind.TYPE, enumOutline.clazz.fullName(), customizations);
 
         for (EnumConstantOutline enumConstantOutline : enumOutline.constants) {
-            processEnumConstantOutline(enumConstantOutline, errorHandler);
+            processEnumConstantOutline(enumOutline, enumConstantOutline, errorHandler);
+        }
+
+        if (enumNameVersionHolder) {
+            addNameVersionHolder(enumOutline);
+        }
+    }
+
+    /**
+     * Replaces the {@code fromValue} method XJC generates for the enum, which scans all constants,
+     * with one resolving values through a static {@link NameVersionHolder}, populated and frozen
+     * when the enum is initialized. The enum also implements
+     * {@link com.vmware.vcloud.api.rest.version.Supported} with the ranges of its constants and
+     * gets a version-aware {@code fromValue} overload.
+     *
+     * @param enumOutline
+     *            the enum to rewrite
+     */
+    private void addNameVersionHolder(EnumOutline enumOutline) {
+        final JDefinedClass clazz = enumOutline.clazz;
+        final JCodeModel codeModel = clazz.owner();
+        final JClass stringType = codeModel.ref(String.class);
+        final JMethod fromValue = clazz.getMethod(ENUM_FROM_VALUE, new JType[] { stringType });
+        if (fromValue == null || enumOutline.constants.isEmpty()) {
+            return;
+        }
+        clazz.methods().remove(fromValue);
+
+        final JClass apiVersionType = codeModel.ref(ApiVersion.class);
+        final JClass holderType = codeModel.ref(NameVersionHolder.class).narrow(clazz);
+        clazz._implements(com.vmware.vcloud.api.rest.version.Supported.class);
+
+        final JFieldVar values = clazz.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, holderType,
+                ENUM_VALUES_FIELD, JExpr._new(holderType));
+        final JBlock init = clazz.init();
+        final JForEach forEach = init.forEach(clazz, "c", clazz.staticInvoke("values"));
+        forEach.body().invoke(values, "put").arg(forEach.var().invoke("value")).arg(forEach.var());
+        init.invoke(values, "freeze");
+
+        final JMethod newFromValue = clazz.method(JMod.PUBLIC | JMod.STATIC, clazz, ENUM_FROM_VALUE);
+        JVar v = newFromValue.param(stringType, "v");
+        final JVar c = newFromValue.body().decl(JMod.FINAL, clazz, "c", values.invoke(ENUM_FROM_VALUE).arg(v));
+        newFromValue.body()._if(c.eq(JExpr._null()))._then()
+                ._throw(JExpr._new(codeModel.ref(IllegalArgumentException.class)).arg(v));
+        newFromValue.body()._return(c);
+
+        final JMethod versionedFromValue = clazz.method(JMod.PUBLIC | JMod.STATIC, clazz, ENUM_FROM_VALUE);
+        versionedFromValue.javadoc()
+                .append("Resolves the value to the constant it represents, if supported in the given version.")
+                .addThrows(IllegalArgumentException.class)
+                .append("if the value is unknown or not supported in the given version");
+        v = versionedFromValue.param(stringType, "v");
+        final JVar version = versionedFromValue.param(apiVersionType, "version");
+        versionedFromValue.body()._return(values.invoke(ENUM_FROM_VALUE).arg(v).arg(version));
+
+        final Map<String, List<String>> addedIn = new LinkedHashMap<>();
+        final Map<String, List<String>> removedIn = new LinkedHashMap<>();
+        for (EnumConstantOutline enumConstantOutline : enumOutline.constants) {
+            final String[] range = getSupportedRange(CustomizationUtils.getCustomizations(enumConstantOutline));
+            final String name = enumConstantOutline.target.getName();
+            addedIn.computeIfAbsent(range[0], k -> new ArrayList<>()).add(name);
+            removedIn.computeIfAbsent(range[1], k -> new ArrayList<>()).add(name);
         }
+        addVersionGetter(clazz, "getAddedIn", addedIn);
+        addVersionGetter(clazz, "getRemovedIn", removedIn);
+    }
+
+    /**
+     * Adds a getter returning the version mapped to each enum constant, switching over the
+     * constants unless they all map to the same version. The version mapped to the most constants
+     * is returned by default.
+     *
+     * @param clazz
+     *            the enum
+     * @param name
+     *            the name of the getter
+     * @param versionToConstants
+     *            names of the constants by version, {@code null} standing for
+     *            {@link ApiVersion#VERSION_MAX}
+     */
+    private void addVersionGetter(JDefinedClass clazz, String name, Map<String, List<String>> versionToConstants) {
+        final JCodeModel codeModel = clazz.owner();
+        final JMethod getter = clazz.method(JMod.PUBLIC, ApiVersion.class, name);
+        getter.annotate(Override.class);
+        for (String version : versionToConstants.keySet()) {
+            final Field constant = apiVersionConstant(version);
+            if (constant != null && constant.isAnnotationPresent(Deprecated.class)) {
+                getter.annotate(SuppressWarnings.class).param("value", "deprecation");
+                break;
+            }
+        }
+
+        String defaultVersion = null;
+        int defaultCount = -1;
+        for (Entry<String, List<String>> entry : versionToConstants.entrySet()) {
+            if (entry.getValue().size() > defaultCount) {
+                defaultVersion = entry.getKey();
+                defaultCount = entry.getValue().size();
+            }
+        }
+
+        if (versionToConstants.size() > 1) {
+            final JSwitch _switch = getter.body()._switch(JExpr._this());
+            for (Entry<String, List<String>> entry : versionToConstants.entrySet()) {
+                if (entry.getKey() == null ? defaultVersion == null : entry.getKey().equals(defaultVersion)) {
+                    continue;
+                }
+                final List<String> constants = entry.getValue();
+                for (int i = 0; i < constants.size() - 1; i++) {
+                    _switch._case(JExpr.ref(constants.get(i)));
+                }
+                _switch._case(JExpr.ref(constants.get(constants.size() - 1))).body()
+                        ._return(apiVersion(codeModel, entry.getKey()));
+            }
+            _switch._default().body()._return(apiVersion(codeModel, defaultVersion));
+        } else {
+            getter.body()._return(apiVersion(codeModel, defaultVersion));
+        }
+    }
+
+    /**
+     * @return a reference to the {@link ApiVersion} constant holding the version, or to the mapping
+     *         of the {@link Alias} constant named by it, so that generated code does not resolve it
+     *         on every call; {@code ApiVersion.fromValue} for versions without a constant
+     */
+    private static JExpression apiVersion(JCodeModel codeModel, String version) {
+        final Field constant = apiVersionConstant(version);
+        if (constant == null) {
+            return codeModel.ref(ApiVersion.class).staticInvoke("fromValue").arg(version);
+        }
+        final JClass constantType = codeModel.ref(constant.getDeclaringClass());
+        return constant.getDeclaringClass() == Alias.class
+                ? constantType.staticRef(constant.getName()).invoke("getMapping")
+                : constantType.staticRef(constant.getName());
+    }
+
+    /**
+     * @param version
+     *            a validated version or alias, {@code null} standing for
+     *            {@link ApiVersion#VERSION_MAX}
+     * @return the {@link Alias} constant named by the version if any, else the {@link ApiVersion}
+     *         constant holding it, or {@code null} if there is none
+     */
+    private static Field apiVersionConstant(String version) {
+        if (version == null) {
+            return API_VERSION_CONSTANTS.get(ApiVersion.VERSION_MAX);
+        }
+        for (Alias alias : Alias.values()) {
+            if (alias.name().equals(version)) {
+                try {
+                    return Alias.class.getField(version);
+                } catch (NoSuchFieldException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return API_VERSION_CONSTANTS.get(ApiVersion.fromValue(version));
+    }
+
+    private static Map<ApiVersion, Field> apiVersionConstants() {
+        final Map<ApiVersion, Field> constants = new HashMap<>();
+        for (Field field : ApiVersion.class.getFields()) {
+            final int modifiers = field.getModifiers();
+            if (field.getType() == ApiVersion.class && Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)) {
+                try {
+                    constants.putIfAbsent((ApiVersion) field.get(null), field);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return constants;
     }
 
     /**
      * Annotates {@link EnumConstantOutline}.
      *
+     * @param enumOutline
      * @param enumConstantOutline
      * @param errorHandler
      */
-    private void processEnumConstantOutline(EnumConstantOutline enumConstantOutline, ErrorHandler errorHandler) {
+    private void processEnumConstantOutline(EnumOutline enumOutline, EnumConstantOutline enumConstantOutline,
+            ErrorHandler errorHandler) {
         CCustomizations customizations = CustomizationUtils.getCustomizations(enumConstantOutline);
         addSupportedAnnotation(enumConstantOutline.constRef, customizations);
+        addSupportedCatalogEntry(SupportedCatalog.Kind.ENUM_CONSTANT,
+                enumOutline.clazz.fullName() + '#' + enumConstantOutline.target.getName(), customizations);
     }
 
     /**
@@ -351,6 +612,44 @@ public class RestApiVersionsPlugin extends Plugin {
         if (annotatable == null) {
             return;
         }
+        final String[] range = getSupportedRange(customizations);
+        final String addedIn = range[0];
+        final String removedIn = range[1];
+
+        JAnnotationUse annotation = annotatable.annotate(Supported.class);
+        annotation.param(J_ANNOTATION_ADDED_IN, addedIn);
+        if (removedIn == null) {
+            return;
+        }
+
+        annotation.param(J_ANNOTATION_REMOVED_IN, removedIn);
+        annotatable.annotate(Deprecated.class);
+        final JDocComment javadoc;
+        if (annotatable instanceof JMethod) {
+            javadoc = ((JMethod) annotatable).javadoc();
+        } else if (annotatable instanceof JFieldVar) {
+            javadoc = ((JFieldVar) annotatable).javadoc();
+        } else if (annotatable instanceof JDefinedClass) {
+            javadoc = ((JDefinedClass) annotatable).javadoc();
+        } else if (annotatable instanceof JEnumConstant) {
+            javadoc = ((JEnumConstant) annotatable).javadoc();
+        } else {
+            return;
+        }
+
+        final String deprecatedCommentMessage = "Removed since REST version " + removedIn;
+        javadoc.addDeprecated().append(deprecatedCommentMessage);
+    }
+
+    /**
+     * Reads the "added-in" and "removed-in" values from the customizations if present. Otherwise,
+     * uses the default {@link #version} for "added-in" and leaves "removed-in" {@code null}.
+     *
+     * @param customizations
+     *            schema customizations for an element
+     * @return the validated "added-in" and "removed-in" values, in that order
+     */
+    private String[] getSupportedRange(CCustomizations customizations) {
         String addedIn = version;
         String removedIn = null;
 
@@ -379,29 +678,7 @@ public class RestApiVersionsPlugin extends Plugin {
                     + customization.locator.getLineNumber() + "", e);
         }
 
-        JAnnotationUse annotation = annotatable.annotate(Supported.class);
-        annotation.param(J_ANNOTATION_ADDED_IN, addedIn);
-        if (removedIn == null) {
-            return;
-        }
-
-        annotation.param(J_ANNOTATION_REMOVED_IN, removedIn);
-        annotatable.annotate(Deprecated.class);
-        final JDocComment javadoc;
-        if (annotatable instanceof JMethod) {
-            javadoc = ((JMethod) annotatable).javadoc();
-        } else if (annotatable instanceof JFieldVar) {
-            javadoc = ((JFieldVar) annotatable).javadoc();
-        } else if (annotatable instanceof JDefinedClass) {
-            javadoc = ((JDefinedClass) annotatable).javadoc();
-        } else if (annotatable instanceof JEnumConstant) {
-            javadoc = ((JMethod) annotatable).javadoc();
-        } else {
-            return;
-        }
-
-        final String deprecatedCommentMessage = "Removed since REST version " + removedIn;
-        javadoc.addDeprecated().append(deprecatedCommentMessage);
+        return new String[] { addedIn, removedIn };
     }
 
     /**
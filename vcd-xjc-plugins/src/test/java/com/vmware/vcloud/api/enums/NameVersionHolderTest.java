@@ -0,0 +1,259 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.enums;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion;
+import com.vmware.vcloud.api.rest.version.Supported;
+
+/**
+ * Checks the interplay of frozen {@link NameVersionHolder}s with the default validator, version
+ * checked lookups and the {@link EnumTelemetry} counts of their outcomes. Telemetry is enabled for
+ * the tests of this module by the build.
+ */
+public class NameVersionHolderTest {
+
+    private enum Color implements Supported {
+        RED, GREEN;
+
+        @Override
+        public ApiVersion getAddedIn() {
+            return null;
+        }
+
+        @Override
+        public ApiVersion getRemovedIn() {
+            return null;
+        }
+    }
+
+    private enum Shape implements Supported {
+        SQUARE(ApiVersion.VERSION_33_0, ApiVersion.VERSION_35_0),
+        CIRCLE(null, null),
+        HEXAGON(ApiVersion.Alias.FUTURE.getMapping(), null);
+
+        private final ApiVersion addedIn;
+        private final ApiVersion removedIn;
+
+        Shape(ApiVersion addedIn, ApiVersion removedIn) {
+            this.addedIn = addedIn;
+            this.removedIn = removedIn;
+        }
+
+        @Override
+        public ApiVersion getAddedIn() {
+            return addedIn;
+        }
+
+        @Override
+        public ApiVersion getRemovedIn() {
+            return removedIn;
+        }
+    }
+
+    @After
+    public void uninstallValidator() {
+        NameVersionHolder.setDefaultEnumValidator(null);
+    }
+
+    @Test
+    public void consultsValidatorInstalledAfterFreeze() {
+        final NameVersionHolder<Color> holder = new NameVersionHolder<>();
+        holder.put("red", Color.RED);
+        holder.put("green", Color.GREEN);
+        holder.freeze();
+        assertSame(Color.RED, holder.fromValue("red"));
+
+        final List<String> validated = new ArrayList<>();
+        NameVersionHolder.setDefaultEnumValidator((key, value) -> validated.add(key + "=" + value));
+
+        assertSame(Color.GREEN, holder.fromValue("green"));
+        holder.fromValue("blue");
+        holder.fromValue("blue".toCharArray(), 0, 4);
+        assertEquals(3, validated.size());
+        assertEquals("green=GREEN", validated.get(0));
+        assertEquals("blue=null", validated.get(1));
+        assertEquals("blue=null", validated.get(2));
+
+        NameVersionHolder.setDefaultEnumValidator(null);
+        assertSame(Color.RED, holder.fromValue("red"));
+        assertEquals(3, validated.size());
+    }
+
+    @Test
+    public void capturesValidatorInstalledBeforeFreeze() {
+        final List<String> validated = new ArrayList<>();
+        NameVersionHolder.setDefaultEnumValidator((key, value) -> validated.add(key + "=" + value));
+
+        final NameVersionHolder<Color> holder = new NameVersionHolder<>();
+        holder.put("red", Color.RED);
+        holder.freeze();
+        assertSame(Color.RED, holder.fromValue("red"));
+        assertEquals(1, validated.size());
+        assertEquals("red=RED", validated.get(0));
+    }
+
+    @Test
+    public void resolvesValuesSupportedInVersion() {
+        for (NameVersionHolder<Shape> holder : shapeHolders()) {
+            assertNull(holder.fromValue(null, ApiVersion.VERSION_34_0));
+            assertSame(Shape.SQUARE, holder.fromValue("square", ApiVersion.VERSION_33_0));
+            assertSame(Shape.SQUARE, holder.fromValue("square", ApiVersion.VERSION_34_0));
+            assertSame(Shape.CIRCLE, holder.fromValue("circle", ApiVersion.fromOrdinal(0)));
+            assertSame(Shape.CIRCLE, holder.fromValue("circle", lastVersion()));
+        }
+    }
+
+    @Test
+    public void rejectsValuesOutsideVersionRange() {
+        final ApiVersion belowAddedIn = ApiVersion.fromOrdinal(ApiVersion.VERSION_33_0.ordinal() - 1);
+        for (NameVersionHolder<Shape> holder : shapeHolders()) {
+            assertRejected(holder, "square", belowAddedIn);
+            assertRejected(holder, "square", ApiVersion.VERSION_35_0);
+            assertRejected(holder, "square", ApiVersion.VERSION_MAX);
+        }
+    }
+
+    @Test
+    public void rejectsFutureValuesInEveryVersion() {
+        for (NameVersionHolder<Shape> holder : shapeHolders()) {
+            assertRejected(holder, "hexagon", lastVersion());
+            // Ranges exclude their upper bound, so that of an unbounded value excludes VERSION_MAX
+            // as ApiVersion.isInRange does; a value added in FUTURE is therefore never supported
+            assertRejected(holder, "hexagon", ApiVersion.VERSION_MAX);
+            assertRejected(holder, "circle", ApiVersion.VERSION_MAX);
+        }
+    }
+
+    @Test
+    public void rejectsUnknownValuesInVersion() {
+        for (NameVersionHolder<Shape> holder : shapeHolders()) {
+            try {
+                holder.fromValue("triangle", ApiVersion.VERSION_34_0);
+                fail("Unknown value accepted");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Unknown value: triangle", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void countsVersionCheckedOutcomes() {
+        assumeTrue(EnumTelemetry.isEnabled());
+        EnumTelemetry.reset();
+        final NameVersionHolder<Shape> holder = shapeHolders().get(1);
+
+        holder.fromValue("square", ApiVersion.VERSION_34_0);
+        holder.fromValue("circle", ApiVersion.VERSION_34_0);
+        assertRejected(holder, "square", ApiVersion.VERSION_35_0);
+        try {
+            holder.fromValue("triangle", ApiVersion.VERSION_34_0);
+            fail("Unknown value accepted");
+        } catch (IllegalArgumentException e) {
+            // Counted as a miss
+        }
+
+        assertOutcomes(2, 1, 1);
+    }
+
+    @Test
+    public void countsValidatorRejectionsOfKnownValuesOnly() {
+        assumeTrue(EnumTelemetry.isEnabled());
+        EnumTelemetry.reset();
+        final NameVersionHolder<Shape> holder = shapeHolders().get(1);
+        NameVersionHolder.setDefaultEnumValidator((key, value) -> {
+            if (!"circle".equals(key)) {
+                throw new IllegalArgumentException("Rejected: " + key);
+            }
+        });
+
+        assertSame(Shape.CIRCLE, holder.fromValue("circle"));
+        for (String key : new String[] { "square", "triangle" }) {
+            try {
+                holder.fromValue(key);
+                fail(key + " accepted");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Rejected: " + key, e.getMessage());
+            }
+        }
+        NameVersionHolder.setDefaultEnumValidator(null);
+        assertNull(holder.fromValue("triangle"));
+
+        // The known value rejected by the validator is a version rejection, the unknown one a miss
+        // whether or not the validator rejected it
+        assertOutcomes(1, 2, 1);
+    }
+
+    /**
+     * @return an unfrozen and a frozen holder of all shapes
+     */
+    private static List<NameVersionHolder<Shape>> shapeHolders() {
+        final List<NameVersionHolder<Shape>> holders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final NameVersionHolder<Shape> holder = new NameVersionHolder<>();
+            for (Shape shape : Shape.values()) {
+                holder.put(shape.name().toLowerCase(), shape);
+            }
+            holders.add(i == 0 ? holder : holder.freeze());
+        }
+        return holders;
+    }
+
+    private static ApiVersion lastVersion() {
+        return ApiVersion.fromOrdinal(ApiVersion.VERSION_MAX.ordinal() - 1);
+    }
+
+    private static void assertRejected(NameVersionHolder<Shape> holder, String key, ApiVersion version) {
+        try {
+            holder.fromValue(key, version);
+            fail(key + " accepted in " + version);
+        } catch (IllegalArgumentException e) {
+            assertEquals("Value " + key + " is not supported in API version " + version, e.getMessage());
+        }
+    }
+
+    private static void assertOutcomes(long hits, long misses, long versionRejected) {
+        final EnumTelemetry.Outcomes outcomes = EnumTelemetry.snapshot().get(Shape.class.getName());
+        assertEquals(outcomes.toString(), hits, outcomes.getHits());
+        assertEquals(outcomes.toString(), misses, outcomes.getMisses());
+        assertEquals(outcomes.toString(), versionRejected, outcomes.getVersionRejected());
+    }
+}
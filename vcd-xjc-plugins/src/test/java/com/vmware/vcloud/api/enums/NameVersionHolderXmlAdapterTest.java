@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.enums;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion;
+import com.vmware.vcloud.api.rest.version.Supported;
+
+/**
+ * Checks how {@link NameVersionHolderXmlAdapter} maps values, including unknown ones.
+ */
+public class NameVersionHolderXmlAdapterTest {
+
+    private enum Color implements Supported {
+        RED("red"), GREEN("green");
+
+        private static final NameVersionHolder<Color> VALUES = new NameVersionHolder<>();
+
+        static {
+            for (Color c : values()) {
+                VALUES.put(c.value, c);
+            }
+            VALUES.freeze();
+        }
+
+        private final String value;
+
+        Color(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public ApiVersion getAddedIn() {
+            return null;
+        }
+
+        @Override
+        public ApiVersion getRemovedIn() {
+            return null;
+        }
+    }
+
+    private static final class ColorAdapter extends NameVersionHolderXmlAdapter<Color> {
+        ColorAdapter() {
+            super(Color.VALUES);
+        }
+
+        @Override
+        protected String valueOf(Color v) {
+            return v.value;
+        }
+    }
+
+    private final ColorAdapter adapter = new ColorAdapter();
+
+    @Test
+    public void unmarshalsKnownValues() {
+        assertSame(Color.RED, adapter.unmarshal("red"));
+        assertSame(Color.GREEN, adapter.unmarshal(" green\n"));
+        assertNull(adapter.unmarshal(null));
+    }
+
+    @Test
+    public void rejectsUnknownValues() {
+        for (String v : new String[] { "blue", " blue ", "RED", "", " " }) {
+            try {
+                adapter.unmarshal(v);
+                fail("Unknown value accepted: '" + v + "'");
+            } catch (IllegalArgumentException e) {
+                // The untrimmed value is reported
+                assertEquals(v, e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void marshalsValues() {
+        assertEquals("red", adapter.marshal(Color.RED));
+        assertNull(adapter.marshal(null));
+    }
+}
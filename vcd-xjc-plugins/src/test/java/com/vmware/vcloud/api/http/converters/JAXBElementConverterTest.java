@@ -0,0 +1,221 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.http.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlElementDecl;
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+/**
+ * Checks how {@link JAXBElementConverter} picks the factory method for a type, that it caches
+ * types without one, and that warming it up does not change which method it picks.
+ */
+public class JAXBElementConverterTest {
+
+    private static final String NAMESPACE = "urn:test";
+
+    public static class EntityType {
+    }
+
+    public static class VAppType extends EntityType {
+    }
+
+    public static class TaskType {
+    }
+
+    public static class UnknownType {
+    }
+
+    public static class ObjectFactory {
+        @XmlElementDecl(namespace = NAMESPACE, name = "Entity")
+        public JAXBElement<EntityType> createEntity(EntityType value) {
+            return element("Entity", EntityType.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "Task")
+        public JAXBElement<TaskType> createTask(TaskType value) {
+            return element("Task", TaskType.class, value);
+        }
+    }
+
+    public static class ExtensionObjectFactory {
+        @XmlElementDecl(namespace = NAMESPACE, name = "ExtensionEntity")
+        public JAXBElement<EntityType> createExtensionEntity(EntityType value) {
+            return element("ExtensionEntity", EntityType.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "VApp")
+        public JAXBElement<VAppType> createVApp(VAppType value) {
+            return element("VApp", VAppType.class, value);
+        }
+    }
+
+    public static class ThrowingObjectFactory {
+        @XmlElementDecl(namespace = NAMESPACE, name = "Task")
+        public JAXBElement<TaskType> createTask(TaskType value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void convertsThroughFirstFactoryAcceptingType() throws Exception {
+        final JAXBElementConverter converter = converter(new ObjectFactory(), new ExtensionObjectFactory());
+        assertEquals(name("Entity"), converter.convertToJAXBElement(new EntityType()).getName());
+        assertEquals(name("Task"), converter.convertToJAXBElement(new TaskType()).getName());
+    }
+
+    @Test
+    public void indexesFactoriesPerInstance() throws Exception {
+        final EntityType entity = new EntityType();
+        assertEquals(name("Entity"), converter(new ObjectFactory()).convertToJAXBElement(entity).getName());
+        assertEquals(name("ExtensionEntity"),
+                converter(new ExtensionObjectFactory()).convertToJAXBElement(entity).getName());
+        assertEquals(name("ExtensionEntity"),
+                converter(new ExtensionObjectFactory(), new ObjectFactory()).convertToJAXBElement(entity).getName());
+    }
+
+    @Test
+    public void convertsSubclassThroughOwnFactoryMethod() throws Exception {
+        final JAXBElementConverter converter = converter(new ObjectFactory(), new ExtensionObjectFactory());
+        assertEquals(name("VApp"), converter.convertToJAXBElement(new VAppType()).getName());
+        assertEquals(name("Entity"), converter(new ObjectFactory()).convertToJAXBElement(new VAppType()).getName());
+    }
+
+    @Test
+    public void failsRepeatedlyForTypeWithoutFactoryMethod() throws Exception {
+        final JAXBElementConverter converter = converter(new ObjectFactory());
+        for (int i = 0; i < 3; i++) {
+            try {
+                converter.convertToJAXBElement(new UnknownType());
+                fail();
+            } catch (NullPointerException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(UnknownType.class.getName()));
+            }
+        }
+        // A miss does not affect other types
+        assertEquals(name("Task"), converter.convertToJAXBElement(new TaskType()).getName());
+    }
+
+    @Test
+    public void convertsEachValueThroughItsType() throws Exception {
+        final JAXBElementConverter converter = converter(new ObjectFactory(), new ExtensionObjectFactory());
+        final TaskType task = new TaskType();
+        final List<JAXBElement<?>> elements =
+                converter.convertAll(Arrays.asList(new EntityType(), new VAppType(), task, task));
+
+        assertEquals(4, elements.size());
+        assertEquals(name("Entity"), elements.get(0).getName());
+        assertEquals(name("VApp"), elements.get(1).getName());
+        assertEquals(name("Task"), elements.get(2).getName());
+        assertSame(task, elements.get(3).getValue());
+    }
+
+    @Test
+    public void wrapsFactoryMethodFailures() throws Exception {
+        final JAXBElementConverter converter = converter(new ThrowingObjectFactory());
+        try {
+            converter.convertToJAXBElement(new TaskType());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    @Test
+    public void warmsUpOnce() {
+        final JAXBElementConverter converter = converter(new ObjectFactory(), new ExtensionObjectFactory());
+        assertNull(converter.getWarmUpStats());
+
+        final JAXBElementConverter.WarmUpStats stats = converter.warmUp();
+        assertEquals(2, stats.getFactoryCount());
+        // EntityType is accepted by both factories, but only mapped once
+        assertEquals(3, stats.getMappingCount());
+        assertSame(stats, converter.getWarmUpStats());
+        assertSame(stats, converter.warmUp());
+    }
+
+    @Test
+    public void warmsUpEagerly() {
+        final JAXBElementConverter converter =
+                new JAXBElementConverter(Arrays.<Object>asList(new ObjectFactory(), new ExtensionObjectFactory()), true);
+        assertEquals(3, converter.getWarmUpStats().getMappingCount());
+    }
+
+    @Test
+    public void convertsAsLazyConverterOnceWarmedUp() throws Exception {
+        final JAXBElementConverter lazy = converter(new ExtensionObjectFactory(), new ObjectFactory());
+        final JAXBElementConverter warm = converter(new ExtensionObjectFactory(), new ObjectFactory());
+        warm.warmUp();
+
+        for (Object value : Arrays.asList(new EntityType(), new VAppType(), new TaskType())) {
+            assertEquals(lazy.convertToJAXBElement(value).getName(), warm.convertToJAXBElement(value).getName());
+        }
+        try {
+            warm.convertToJAXBElement(new UnknownType());
+            fail();
+        } catch (NullPointerException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void warmsUpAfterConverting() throws Exception {
+        final JAXBElementConverter converter = converter(new ObjectFactory(), new ExtensionObjectFactory());
+        converter.convertToJAXBElement(new EntityType());
+
+        // Types already converted are not newly mapped
+        assertEquals(2, converter.warmUp().getMappingCount());
+        assertEquals(name("Entity"), converter.convertToJAXBElement(new EntityType()).getName());
+    }
+
+    private static JAXBElementConverter converter(Object... objectFactories) {
+        return new JAXBElementConverter(Arrays.asList(objectFactories));
+    }
+
+    private static QName name(String localPart) {
+        return new QName(NAMESPACE, localPart);
+    }
+
+    private static <T> JAXBElement<T> element(String localPart, Class<T> type, T value) {
+        return new JAXBElement<>(name(localPart), type, value);
+    }
+}
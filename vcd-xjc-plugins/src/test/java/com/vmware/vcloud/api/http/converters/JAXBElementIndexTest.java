@@ -0,0 +1,125 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.http.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.XmlElementDecl;
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link JAXBElementIndex} and {@link JAXBElementConverter} agree on the element
+ * wrapping a type, and that type ids are not resolved ambiguously.
+ */
+public class JAXBElementIndexTest {
+
+    private static final String NAMESPACE = "urn:test";
+
+    public static class ReferenceType {
+    }
+
+    public static class Vms {
+        public static class Type {
+        }
+    }
+
+    public static class Networks {
+        public static class Type {
+        }
+    }
+
+    public static class ObjectFactory {
+        @XmlElementDecl(namespace = NAMESPACE, name = "Owner")
+        public JAXBElement<ReferenceType> createOwner(ReferenceType value) {
+            return new JAXBElement<>(new QName(NAMESPACE, "Owner"), ReferenceType.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "Link")
+        public JAXBElement<ReferenceType> createLink(ReferenceType value) {
+            return new JAXBElement<>(new QName(NAMESPACE, "Link"), ReferenceType.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "Anchor", scope = Vms.class)
+        public JAXBElement<ReferenceType> createVmsAnchor(ReferenceType value) {
+            return new JAXBElement<>(new QName(NAMESPACE, "Anchor"), ReferenceType.class, Vms.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "Vms")
+        public JAXBElement<Vms.Type> createVms(Vms.Type value) {
+            return new JAXBElement<>(new QName(NAMESPACE, "Vms"), Vms.Type.class, value);
+        }
+
+        @XmlElementDecl(namespace = NAMESPACE, name = "Networks")
+        public JAXBElement<Networks.Type> createNetworks(Networks.Type value) {
+            return new JAXBElement<>(new QName(NAMESPACE, "Networks"), Networks.Type.class, value);
+        }
+    }
+
+    private final JAXBElementIndex index = new JAXBElementIndex(Collections.singletonList(ObjectFactory.class));
+
+    @Test
+    public void agreesWithConverter() throws Exception {
+        final JAXBElementConverter converter =
+                new JAXBElementConverter(Collections.<Object>singletonList(new ObjectFactory()));
+        for (Object value : Arrays.asList(new ReferenceType(), new Vms.Type(), new Networks.Type())) {
+            assertEquals(converter.convertToJAXBElement(value).getName(),
+                    index.getByType(value.getClass()).getName());
+        }
+        // Global elements precede scoped ones, then elements are ordered by name
+        assertEquals(new QName(NAMESPACE, "Link"), index.getByType(ReferenceType.class).getName());
+    }
+
+    @Test
+    public void resolvesUniqueTypeIds() {
+        assertSame(index.getByType(ReferenceType.class), index.getByTypeId("ReferenceType"));
+        assertNull(index.getByTypeId("Unknown"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAmbiguousTypeIds() {
+        index.getByTypeId("Type");
+    }
+
+    @Test
+    public void resolvesScopedElements() {
+        final QName anchor = new QName(NAMESPACE, "Anchor");
+        assertNull(index.get(anchor));
+        final JAXBElement<?> element = index.get(Vms.class, anchor).createElement(new ReferenceType());
+        assertSame(Vms.class, element.getScope());
+    }
+}
@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Checks the per-version alias tables behind {@link ApiVersion#isEnabled(Alias)} and
+ * {@link ApiVersion#enabledFeatures()} against version comparison.
+ */
+public class ApiVersionAliasFeaturesTest {
+
+    private static List<ApiVersion> versionsAndMax() {
+        final List<ApiVersion> versions = new ArrayList<>(Arrays.asList(ApiVersion.values()));
+        versions.add(ApiVersion.VERSION_MAX);
+        return versions;
+    }
+
+    @Test
+    public void enabledMatchesComparison() {
+        for (ApiVersion version : versionsAndMax()) {
+            final Set<Alias> expected = EnumSet.noneOf(Alias.class);
+            for (Alias alias : Alias.values()) {
+                final boolean atLeast = version.compareTo(alias.getMapping()) >= 0;
+                assertEquals(version + " " + alias, atLeast, version.isEnabled(alias));
+                assertEquals(version + " " + alias, atLeast, version.isAtLeast(alias));
+                if (atLeast) {
+                    expected.add(alias);
+                }
+            }
+            assertEquals(version.toString(), expected, version.enabledFeatures());
+        }
+    }
+
+    @Test
+    public void futureOnlyEnabledInVersionMax() {
+        for (ApiVersion version : ApiVersion.values()) {
+            assertFalse(version.toString(), version.isEnabled(Alias.FUTURE));
+            assertFalse(version.toString(), version.enabledFeatures().contains(Alias.FUTURE));
+        }
+        assertTrue(ApiVersion.VERSION_MAX.isEnabled(Alias.FUTURE));
+        assertEquals(EnumSet.allOf(Alias.class), ApiVersion.VERSION_MAX.enabledFeatures());
+    }
+
+    @Test
+    public void enabledAtMappedVersionOnly() {
+        final ApiVersion mapping = Alias.MAX_SUPPORTED.getMapping();
+        assertTrue(mapping.isEnabled(Alias.MAX_SUPPORTED));
+        assertFalse(ApiVersion.fromOrdinal(mapping.ordinal() - 1).isEnabled(Alias.MAX_SUPPORTED));
+
+        final ApiVersion lowest = ApiVersion.fromOrdinal(0);
+        for (Alias alias : lowest.enabledFeatures()) {
+            assertSame(lowest, alias.getMapping());
+        }
+    }
+
+    @Test
+    public void enabledFeaturesAreShared() {
+        for (ApiVersion version : versionsAndMax()) {
+            assertSame(version.enabledFeatures(), version.enabledFeatures());
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void enabledFeaturesAreUnmodifiable() {
+        ApiVersion.VERSION_35_0.enabledFeatures().add(Alias.FUTURE);
+    }
+}
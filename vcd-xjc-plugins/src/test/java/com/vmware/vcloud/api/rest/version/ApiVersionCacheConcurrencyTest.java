@@ -0,0 +1,142 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+import com.vmware.vcloud.api.rest.version.ApiVersionCacheHelper.ApiVersionCache;
+
+/**
+ * Registers aliases in batches while other threads resolve them, checking that every batch is
+ * published all at once, that published aliases stay visible and that no earlier alias is lost.
+ */
+public class ApiVersionCacheConcurrencyTest {
+
+    private static final String PREFIX = "concurrency-test-";
+    private static final int READERS = 4;
+    private static final int BATCHES = 200;
+    private static final int BATCH_SIZE = 16;
+
+    /**
+     * Private cache, so that the aliases registered here do not leak into other tests
+     */
+    private final ApiVersionCache cache = new ApiVersionCache();
+
+    /**
+     * Highest batch whose registration has returned, or {@code -1}
+     */
+    private final AtomicInteger published = new AtomicInteger(-1);
+
+    @Test(timeout = 60000)
+    public void publishesBatchesAtomically() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            final List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(this::read));
+            }
+            executor.submit(this::write).get();
+
+            for (Future<Integer> reader : readers) {
+                assertEquals(Integer.valueOf(0), reader.get());
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Void write() {
+        for (int b = 0; b < BATCHES; b++) {
+            final Map<String, ApiVersion> batch = new HashMap<>();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.put(alias(b, i), versionOf(b));
+            }
+            cache.addAliasValues(batch);
+            published.set(b);
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of inconsistencies observed
+     */
+    private Integer read() {
+        int failures = 0;
+        int lastSeen = -1;
+        while (lastSeen < BATCHES - 1) {
+            final int floor = published.get();
+            final Map<String, ApiVersion> snapshot = cache.getAliasSnapshot();
+
+            for (int b = 0; b < BATCHES; b++) {
+                int present = 0;
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    final ApiVersion version = snapshot.get(alias(b, i));
+                    if (version != null) {
+                        present++;
+                        failures += version == versionOf(b) ? 0 : 1;
+                    }
+                }
+                // A batch is either entirely missing or entirely present, and batches
+                // published before the snapshot was taken are present
+                failures += present == 0 && b > floor || present == BATCH_SIZE ? 0 : 1;
+            }
+            for (Alias alias : Alias.values()) {
+                failures += snapshot.containsKey(alias.name()) ? 0 : 1;
+            }
+            if (floor >= 0) {
+                failures += cache.getAliasValue(alias(floor, BATCH_SIZE - 1)) == versionOf(floor) ? 0 : 1;
+            }
+            lastSeen = floor;
+        }
+        return failures;
+    }
+
+    private static String alias(int batch, int i) {
+        return PREFIX + batch + "-" + i;
+    }
+
+    private static ApiVersion versionOf(int batch) {
+        return batch % 2 == 0 ? ApiVersion.VERSION_34_0 : ApiVersion.VERSION_35_0;
+    }
+}
@@ -0,0 +1,190 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Runs {@link ApiVersionGenerator} for the TypeScript and Python formats and reads the version and
+ * alias tables back out of the generated modules.
+ */
+public class ApiVersionGeneratorTest {
+
+    private static final String OUTPUT_DIRECTORY = "apiVersionOutputDirectory";
+    private static final String OUTPUT_FORMATS = "apiVersionOutputFormats";
+
+    private static final Pattern STRING = Pattern.compile("'([^'\\\\]*)'");
+    private static final Pattern ENTRY = Pattern.compile("'([^'\\\\]*)': '([^'\\\\]*)'");
+    private static final Pattern INDEX_ENTRY = Pattern.compile("'([^'\\\\]*)': (\\d+)");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File outputDirectory;
+
+    @Before
+    public void generate() throws Exception {
+        outputDirectory = folder.getRoot();
+        System.setProperty(OUTPUT_DIRECTORY, outputDirectory.getPath());
+        System.setProperty(OUTPUT_FORMATS, "typescript, python");
+        ApiVersionGenerator.main(new String[0]);
+    }
+
+    @After
+    public void clearProperties() {
+        System.clearProperty(OUTPUT_DIRECTORY);
+        System.clearProperty(OUTPUT_FORMATS);
+    }
+
+    @Test
+    public void writesTypescriptTables() throws IOException {
+        final String module = read("api-versions.ts");
+
+        assertEquals(expectedVersions(), strings(
+                section(module, "export const API_VERSIONS: ReadonlyArray<string> = Object.freeze([", "]);")));
+        assertEquals(expectedAliases(), entries(ENTRY,
+                section(module, "export const API_VERSION_ALIASES: { readonly [alias: string]: string } = Object.freeze({", "});")));
+
+        final Map<String, String> index = entries(INDEX_ENTRY,
+                section(module, "const API_VERSION_INDEX: { readonly [version: string]: number } = Object.freeze({", "});"));
+        final List<String> versions = expectedVersions();
+        assertEquals(versions.size(), index.size());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(String.valueOf(i), index.get(versions.get(i)));
+        }
+        assertTrue(module.contains("export function indexOfApiVersion(key: string): number {"));
+        assertTrue(module.contains("export function resolveApiVersion(key: string): string | undefined {"));
+    }
+
+    @Test
+    public void writesPythonTables() throws IOException {
+        final String module = read("api_versions.py");
+
+        assertEquals(expectedVersions(), strings(section(module, "API_VERSIONS = (\n", "\n)\n")));
+        assertEquals(expectedAliases(), entries(ENTRY, section(module, "API_VERSION_ALIASES = {\n", "\n}\n")));
+        assertTrue(module.contains("def index_of_api_version(key):"));
+        assertTrue(module.contains("def resolve_api_version(key):"));
+    }
+
+    @Test
+    public void dropsAliasesOfUnlistedVersions() throws IOException {
+        for (String file : new String[] { "api-versions.ts", "api_versions.py" }) {
+            final String module = read(file);
+            assertFalse(file, module.contains(Alias.FUTURE.name()));
+            assertTrue(file, module.contains("'" + Alias.MAX_SUPPORTED.name() + "': '"
+                    + Alias.MAX_SUPPORTED.getMapping().value() + "'"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnknownFormat() throws Exception {
+        System.setProperty(OUTPUT_FORMATS, "typescript,ruby");
+        ApiVersionGenerator.main(new String[0]);
+    }
+
+    /**
+     * @return the version 0.9, which the generator always lists, followed by all known versions
+     */
+    private static List<String> expectedVersions() {
+        final List<String> versions = new ArrayList<>();
+        versions.add("0.9");
+        for (ApiVersion version : ApiVersion.values()) {
+            if (!versions.contains(version.value())) {
+                versions.add(version.value());
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * @return all aliases, except for those mapped to a version that is not listed, such as
+     *         {@link Alias#FUTURE}
+     */
+    private static Map<String, String> expectedAliases() {
+        final Map<String, String> aliases = new LinkedHashMap<>();
+        for (Alias alias : Alias.values()) {
+            if (alias.getMapping() != ApiVersion.VERSION_MAX) {
+                aliases.put(alias.name(), alias.getMapping().value());
+            }
+        }
+        return aliases;
+    }
+
+    private String read(String file) throws IOException {
+        return new String(Files.readAllBytes(new File(outputDirectory, file).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String section(String module, String from, String to) {
+        final int start = module.indexOf(from);
+        assertTrue("Missing " + from, start >= 0);
+        final int end = module.indexOf(to, start + from.length());
+        assertTrue("Unterminated " + from, end >= 0);
+        return module.substring(start + from.length(), end);
+    }
+
+    private static List<String> strings(String section) {
+        final List<String> strings = new ArrayList<>();
+        final Matcher matcher = STRING.matcher(section);
+        while (matcher.find()) {
+            strings.add(matcher.group(1));
+        }
+        return strings;
+    }
+
+    private static Map<String, String> entries(Pattern entry, String section) {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        final Matcher matcher = entry.matcher(section);
+        while (matcher.find()) {
+            entries.put(matcher.group(1), matcher.group(2));
+        }
+        return entries;
+    }
+}
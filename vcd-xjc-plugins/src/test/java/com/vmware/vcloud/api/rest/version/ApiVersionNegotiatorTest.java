@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Checks quality handling and result caching of {@link ApiVersionNegotiator}.
+ */
+public class ApiVersionNegotiatorTest {
+
+    private static final String HOT_HEADER = "application/*+xml;version=34.0, application/*+json;version=35.0;q=0.9";
+    private static final int THREADS = 4;
+    private static final int ITERATIONS = 100_000;
+
+    private final ApiVersionNegotiator negotiator = new ApiVersionNegotiator();
+
+    @Test
+    public void prefersHigherQuality() {
+        assertSame(ApiVersion.VERSION_34_0,
+                negotiator.negotiate("application/*+xml;version=34.0, application/*+json;version=35.0;q=0.9"));
+    }
+
+    @Test
+    public void ignoresQualityAboveOne() {
+        assertSame(ApiVersion.VERSION_34_0,
+                negotiator.negotiate("application/*+xml;version=34.0;q=0.5, application/*+xml;version=35.0;q=1.5"));
+        assertNull(negotiator.negotiate("application/*+xml;version=35.0;q=1.001"));
+        assertSame(ApiVersion.VERSION_35_0, negotiator.negotiate("application/*+xml;version=35.0;q=1.000"));
+    }
+
+    @Test
+    public void evictsWithoutLosingResults() {
+        final ApiVersionNegotiator small = new ApiVersionNegotiator(Alias.MIN_SUPPORTED.getMapping(),
+                Alias.MAX_SUPPORTED.getMapping(), 2);
+        for (int i = 0; i < 3; i++) {
+            assertSame(ApiVersion.VERSION_33_0, small.negotiate("application/*+xml;version=33.0"));
+            assertSame(ApiVersion.VERSION_34_0, small.negotiate("application/*+xml;version=34.0"));
+            assertSame(ApiVersion.VERSION_35_0, small.negotiate("application/*+xml;version=35.0"));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void resolvesSharedHeaderConcurrently() throws Exception {
+        final ApiVersionNegotiator small = new ApiVersionNegotiator(Alias.MIN_SUPPORTED.getMapping(),
+                Alias.MAX_SUPPORTED.getMapping(), 4);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            final List<Future<Integer>> readers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    int failures = 0;
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        failures += small.negotiate(HOT_HEADER) == ApiVersion.VERSION_34_0 ? 0 : 1;
+                    }
+                    return failures;
+                }));
+            }
+            // Churns the cache with distinct headers so that the shared one is repeatedly
+            // considered for eviction while it is being read
+            final Future<Integer> churn = executor.submit(() -> {
+                start.await();
+                int failures = 0;
+                for (int i = 0; i < ITERATIONS / 10; i++) {
+                    final String header = "application/*+xml;version=35.0;id=" + i;
+                    failures += small.negotiate(header) == ApiVersion.VERSION_35_0 ? 0 : 1;
+                }
+                return failures;
+            });
+            start.countDown();
+
+            for (Future<Integer> reader : readers) {
+                assertEquals(Integer.valueOf(0), reader.get());
+            }
+            assertEquals(Integer.valueOf(0), churn.get());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
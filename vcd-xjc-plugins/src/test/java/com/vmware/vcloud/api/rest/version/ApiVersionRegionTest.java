@@ -0,0 +1,184 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Checks that {@link ApiVersion#fromValue(CharSequence, int, int)} and
+ * {@link ApiVersion#fromBytes(byte[], int, int)} resolve a region of a larger buffer exactly as
+ * {@link ApiVersion#fromValue(String)} resolves the same region copied out to a {@link String}.
+ */
+public class ApiVersionRegionTest {
+
+    private static final String PREFIX = "application/*+xml;version=";
+    private static final String SUFFIX = ";q=0.9";
+
+    @Test
+    public void resolvesEveryVersionAndAliasInRegion() {
+        for (ApiVersion version : ApiVersion.values()) {
+            assertResolves(version, version.value());
+        }
+        for (Alias alias : Alias.values()) {
+            assertResolves(alias.getMapping(), alias.name());
+        }
+    }
+
+    @Test
+    public void resolvesEmptyRegionToMax() {
+        assertSame(ApiVersion.VERSION_MAX, ApiVersion.fromValue(PREFIX, PREFIX.length(), PREFIX.length()));
+        assertSame(ApiVersion.VERSION_MAX, ApiVersion.fromValue("", 0, 0));
+        assertSame(ApiVersion.VERSION_MAX, ApiVersion.fromBytes(ascii(PREFIX), 3, 3));
+        assertSame(ApiVersion.VERSION_MAX, ApiVersion.fromBytes(new byte[0], 0, 0));
+    }
+
+    @Test
+    public void resolvesCharSequenceRegion() {
+        final StringBuilder header = new StringBuilder(PREFIX).append("35.0").append(SUFFIX);
+        assertSame(ApiVersion.VERSION_35_0, ApiVersion.fromValue(header, PREFIX.length(), PREFIX.length() + 4));
+    }
+
+    @Test
+    public void rejectsUnknownRegions() {
+        for (String unknown : new String[] { "99.0", "35.1", "35.", ".0", "035.0", "35.00", "35", "max_supported",
+                "MAX_SUPPORTED ", "35.0;q" }) {
+            assertRejected(unknown);
+        }
+    }
+
+    @Test
+    public void rejectsRegionNotMatchingWholeAlias() {
+        final String header = PREFIX + "MAX_SUPPORTED" + SUFFIX;
+        final int start = PREFIX.length();
+        assertRejected(header, start, start + 3);
+        assertRejected(header, start + 1, start + "MAX_SUPPORTED".length());
+    }
+
+    @Test
+    public void rejectsNonAsciiBytes() {
+        final byte[][] values = {
+                "35.0é".getBytes(StandardCharsets.UTF_8),
+                "3µ.0".getBytes(StandardCharsets.UTF_8),
+                "３５.0".getBytes(StandardCharsets.UTF_8),
+                { '3', '5', '.', (byte) 0xB0 },
+                { (byte) 0xE9 },
+                "FUTURÉ".getBytes(StandardCharsets.ISO_8859_1),
+                "FUTURÉ".getBytes(StandardCharsets.UTF_8),
+        };
+        for (byte[] value : values) {
+            try {
+                ApiVersion.fromBytes(value, 0, value.length);
+                fail("Resolved " + new String(value, StandardCharsets.ISO_8859_1));
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void reportsOnlyRegionInMessage() {
+        final String header = PREFIX + "99.0" + SUFFIX;
+        final int start = PREFIX.length();
+        try {
+            ApiVersion.fromValue(header, start, start + 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown API version: 99.0", e.getMessage());
+        }
+        try {
+            ApiVersion.fromBytes(ascii(header), start, start + 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown API version: 99.0", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsRegionOutsideOfValue() {
+        final String value = "35.0";
+        for (int[] region : new int[][] { { -1, 2 }, { 0, 5 }, { 3, 2 } }) {
+            try {
+                ApiVersion.fromValue(value, region[0], region[1]);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+            try {
+                ApiVersion.fromBytes(ascii(value), region[0], region[1]);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static void assertResolves(ApiVersion expected, String value) {
+        assertSame(value, expected, ApiVersion.fromValue(value));
+
+        final String header = PREFIX + value + SUFFIX;
+        final int start = PREFIX.length();
+        final int end = start + value.length();
+        assertSame(value, expected, ApiVersion.fromValue(header, start, end));
+        assertSame(value, expected, ApiVersion.fromBytes(ascii(header), start, end));
+    }
+
+    private static void assertRejected(String value) {
+        final String header = PREFIX + value + SUFFIX;
+        assertRejected(header, PREFIX.length(), PREFIX.length() + value.length());
+    }
+
+    private static void assertRejected(String header, int start, int end) {
+        final String value = header.substring(start, end);
+        try {
+            ApiVersion.fromValue(header, start, end);
+            fail("Resolved " + value + " from characters");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            ApiVersion.fromBytes(ascii(header), start, end);
+            fail("Resolved " + value + " from bytes");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,110 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link ApiVersion}s cross serialization boundaries with releases that predate
+ * three-part and alpha versions, as happens when sessions are replicated during a rolling
+ * upgrade.
+ */
+public class ApiVersionSerializationTest {
+
+    /**
+     * {@link ApiVersion#VERSION_35_0} followed by {@link ApiVersion#VERSION_MAX}, as written by the
+     * {@code ApiVersion} class of the previous release
+     */
+    private static final String LEGACY_STREAM = "ApiVersion-legacy.ser";
+
+    @Test
+    public void readsLegacyStream() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(openLegacyStream())) {
+            assertSame(ApiVersion.VERSION_35_0, in.readObject());
+            assertSame(ApiVersion.VERSION_MAX, in.readObject());
+        }
+    }
+
+    @Test
+    public void writesLegacyForm() throws Exception {
+        final ObjectStreamClass[] legacy = new ObjectStreamClass[1];
+        try (ObjectInputStream in = new ObjectInputStream(openLegacyStream()) {
+            @Override
+            protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                legacy[0] = super.readClassDescriptor();
+                return legacy[0];
+            }
+        }) {
+            in.readObject();
+        }
+
+        final ObjectStreamClass current = ObjectStreamClass.lookup(ApiVersion.class);
+        assertEquals(legacy[0].getSerialVersionUID(), current.getSerialVersionUID());
+        assertEquals(describe(legacy[0]), describe(current));
+    }
+
+    @Test
+    public void roundTripsToRegisteredInstance() throws Exception {
+        for (ApiVersion version : ApiVersion.values()) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(version);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertSame(version, in.readObject());
+            }
+        }
+    }
+
+    private static InputStream openLegacyStream() {
+        return ApiVersionSerializationTest.class.getResourceAsStream(LEGACY_STREAM);
+    }
+
+    private static String describe(ObjectStreamClass descriptor) {
+        final StringBuilder fields = new StringBuilder();
+        for (ObjectStreamField field : descriptor.getFields()) {
+            fields.append(field.getName()).append(' ').append(field.getTypeString() != null
+                    ? field.getTypeString() : String.valueOf(field.getTypeCode())).append('\n');
+        }
+        return fields.toString();
+    }
+}
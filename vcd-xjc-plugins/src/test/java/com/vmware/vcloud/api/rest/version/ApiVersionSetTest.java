@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the set operations, iteration order and serialized form of {@link ApiVersionSet}.
+ * <p>
+ * There are fewer than 64 versions, so the boundary between the first and second word of the
+ * bitset is checked on bitsets built directly from ordinals.
+ */
+public class ApiVersionSetTest {
+
+    private static final ApiVersion FIRST = ApiVersion.fromOrdinal(0);
+    private static final ApiVersion LAST = ApiVersion.fromOrdinal(ApiVersion.versionCount() - 1);
+    private static final ApiVersion V33 = ApiVersion.VERSION_33_0;
+    private static final ApiVersion V34 = ApiVersion.VERSION_34_0;
+    private static final ApiVersion V35 = ApiVersion.VERSION_35_0;
+    private static final ApiVersion V35_2 = ApiVersion.VERSION_35_2;
+
+    @Test
+    public void rangeMatchesGetRange() {
+        final ApiVersion[] bounds = { FIRST, V33, V34, V35, V35_2, LAST, ApiVersion.VERSION_MAX };
+        for (ApiVersion min : bounds) {
+            for (ApiVersion max : bounds) {
+                assertEquals(min + ".." + max, ApiVersion.getRange(min, max), ApiVersionSet.range(min, max).toList());
+            }
+        }
+    }
+
+    @Test
+    public void rangeAcrossWordBoundary() {
+        final ApiVersionSet set = new ApiVersionSet(ApiVersionSet.rangeWords(63, 65, 2));
+        assertEquals(2, set.size());
+        assertEquals(63, set.nextOrdinal(0));
+        assertEquals(64, set.nextOrdinal(64));
+        assertEquals(-1, set.nextOrdinal(65));
+        assertEquals(-1, set.nextOrdinal(128));
+
+        assertEquals(1, new ApiVersionSet(ApiVersionSet.rangeWords(63, 64, 2)).size());
+        assertEquals(64, new ApiVersionSet(ApiVersionSet.rangeWords(64, 65, 2)).nextOrdinal(0));
+        assertEquals(128, new ApiVersionSet(ApiVersionSet.rangeWords(0, 128, 2)).size());
+        assertTrue(new ApiVersionSet(ApiVersionSet.rangeWords(64, 64, 2)).isEmpty());
+    }
+
+    @Test
+    public void setOperationsAcrossWordBoundary() {
+        final ApiVersionSet low = new ApiVersionSet(ApiVersionSet.rangeWords(62, 65, 2));
+        final ApiVersionSet high = new ApiVersionSet(ApiVersionSet.rangeWords(63, 66, 2));
+
+        assertEquals(new ApiVersionSet(ApiVersionSet.rangeWords(62, 66, 2)), low.union(high));
+        assertEquals(new ApiVersionSet(ApiVersionSet.rangeWords(63, 65, 2)), low.intersection(high));
+        assertEquals(new ApiVersionSet(ApiVersionSet.rangeWords(62, 63, 2)), low.difference(high));
+        assertEquals(new ApiVersionSet(ApiVersionSet.rangeWords(65, 66, 2)), high.difference(low));
+    }
+
+    @Test
+    public void rangeUpToLastVersion() {
+        final ApiVersionSet set = ApiVersionSet.range(V35_2, ApiVersion.VERSION_MAX);
+        assertSame(V35_2, set.first());
+        assertSame(LAST, set.last());
+        assertFalse(set.contains(ApiVersion.VERSION_MAX));
+        assertEquals(ApiVersionSet.all(), ApiVersionSet.range(FIRST, LAST));
+        assertTrue(ApiVersionSet.range(V35, V34).isEmpty());
+    }
+
+    @Test
+    public void ofMatchesRange() {
+        final ApiVersionSet set = ApiVersionSet.of(V35, V34);
+        assertEquals(2, set.size());
+        assertEquals(ApiVersionSet.range(V34, V35), set);
+        assertEquals(ApiVersionSet.range(V34, V35).hashCode(), set.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ofRejectsVersionMax() {
+        ApiVersionSet.of(ApiVersion.VERSION_MAX);
+    }
+
+    @Test
+    public void complement() {
+        final ApiVersionSet set = ApiVersionSet.of(FIRST, V34, LAST);
+        final ApiVersionSet complement = set.complement();
+
+        assertEquals(ApiVersion.versionCount() - 3, complement.size());
+        assertFalse(complement.contains(FIRST));
+        assertFalse(complement.contains(V34));
+        assertFalse(complement.contains(LAST));
+        assertTrue(complement.contains(V33));
+        assertTrue(complement.contains(V35));
+        assertFalse(complement.contains(ApiVersion.VERSION_MAX));
+        assertEquals(set, complement.complement());
+        assertTrue(ApiVersionSet.all().complement().isEmpty());
+        assertEquals(ApiVersionSet.all(), ApiVersionSet.empty().complement());
+    }
+
+    @Test
+    public void unionAndIntersection() {
+        final ApiVersionSet low = ApiVersionSet.range(V33, V35);
+        final ApiVersionSet high = ApiVersionSet.range(V34, V35_2);
+
+        assertEquals(ApiVersionSet.range(V33, V35_2), low.union(high));
+        assertEquals(ApiVersionSet.range(V34, V35), low.intersection(high));
+        assertEquals(ApiVersionSet.of(V33), low.difference(high));
+        assertTrue(low.intersection(low.complement()).isEmpty());
+        assertEquals(ApiVersionSet.all(), low.union(low.complement()));
+    }
+
+    @Test
+    public void iteratesInAscendingOrder() {
+        final List<ApiVersion> all = ApiVersionSet.all().toList();
+        assertEquals(ApiVersion.versionCount(), all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertSame(ApiVersion.fromOrdinal(i), all.get(i));
+            if (i > 0) {
+                assertTrue(all.get(i - 1).isLessThan(all.get(i)));
+            }
+        }
+
+        final List<ApiVersion> iterated = new ArrayList<>();
+        for (ApiVersion version : ApiVersionSet.of(LAST, V35, FIRST, V34)) {
+            iterated.add(version);
+        }
+        assertEquals(Arrays.asList(FIRST, V34, V35, LAST), iterated);
+    }
+
+    @Test
+    public void roundTripsThroughSerialization() throws Exception {
+        final ApiVersionSet[] sets = { ApiVersionSet.empty(), ApiVersionSet.all(), ApiVersionSet.range(V34, V35),
+                ApiVersionSet.of(FIRST, V34, LAST), ApiVersionSet.of(V35).complement() };
+        for (ApiVersionSet set : sets) {
+            assertEquals(set, deserialize(serialize(set)));
+        }
+    }
+
+    @Test
+    public void serializesEveryMember() throws Exception {
+        // A run stored as its bounds would not record the version in between, and would pick up
+        // any version inserted between the bounds by a later build
+        final byte[] bytes = serialize(ApiVersionSet.range(V33, V35));
+        final String stream = new String(bytes, StandardCharsets.ISO_8859_1);
+        for (ApiVersion version : Arrays.asList(V33, V34, V35)) {
+            assertTrue(version.value(), stream.contains(version.value()));
+        }
+    }
+
+    private static byte[] serialize(ApiVersionSet set) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(set);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ApiVersionSet deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (ApiVersionSet) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vmware.vcloud.api.rest.version.SupportedCatalog.Kind;
+
+/**
+ * Checks that {@link SupportedCatalog} reads, merges and validates the catalog resources found on
+ * the class path.
+ */
+public class SupportedCatalogTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadsEntriesByKindAndVersion() throws IOException {
+        final SupportedCatalog catalog = load(catalog(
+                "# Comments and blank lines are skipped",
+                "",
+                "T\t33.0\t\tcom.example.Thing",
+                "P\t33.0\t35.0\tcom.example.Thing#name",
+                "P\tMAX_SUPPORTED\t\tcom.example.Thing#size",
+                "C\t34.0\t\tcom.example.Color#RED"));
+
+        assertEquals(Collections.emptyList(), catalog.getSupported(Kind.TYPE, ApiVersion.fromOrdinal(ApiVersion.VERSION_33_0.ordinal() - 1)));
+        assertEquals(Arrays.asList("com.example.Thing"), catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_33_0));
+        assertEquals(Arrays.asList("com.example.Thing#name"),
+                catalog.getSupported(Kind.PROPERTY, ApiVersion.VERSION_34_0));
+        assertEquals(Arrays.asList("com.example.Thing#size"),
+                catalog.getSupported(Kind.PROPERTY, ApiVersion.Alias.MAX_SUPPORTED.getMapping()));
+        assertEquals(Arrays.asList("com.example.Color#RED"),
+                catalog.getSupported(Kind.ENUM_CONSTANT, ApiVersion.VERSION_34_0));
+        assertEquals(Collections.emptyList(), catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_MAX));
+
+        assertTrue(catalog.contains(Kind.PROPERTY, "com.example.Thing#name"));
+        assertFalse(catalog.contains(Kind.TYPE, "com.example.Thing#name"));
+        assertTrue(catalog.isSupported(Kind.PROPERTY, "com.example.Thing#name", ApiVersion.VERSION_34_0));
+        assertFalse(catalog.isSupported(Kind.PROPERTY, "com.example.Thing#name", ApiVersion.VERSION_35_0));
+        assertFalse(catalog.isSupported(Kind.PROPERTY, "com.example.Thing#name", ApiVersion.fromOrdinal(ApiVersion.VERSION_33_0.ordinal() - 1)));
+        assertTrue(catalog.isSupported(Kind.PROPERTY, "com.example.Thing#unlisted", ApiVersion.fromOrdinal(ApiVersion.VERSION_33_0.ordinal() - 1)));
+    }
+
+    @Test
+    public void sharesSupportedViews() throws IOException {
+        final SupportedCatalog catalog = load(catalog("T\t33.0\t\tcom.example.Thing"));
+        assertSame(catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_34_0),
+                catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_34_0));
+        try {
+            catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_34_0).add("com.example.Other");
+            fail("View is modifiable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void mergesCatalogsKeepingFirstRange() throws IOException {
+        final SupportedCatalog catalog = load(
+                catalog("T\t33.0\t\tcom.example.Thing"),
+                catalog("T\t35.0\t\tcom.example.Thing", "T\t35.0\t\tcom.example.Other"));
+
+        assertEquals(Arrays.asList("com.example.Thing"), catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_34_0));
+        assertEquals(Arrays.asList("com.example.Thing", "com.example.Other"),
+                catalog.getSupported(Kind.TYPE, ApiVersion.VERSION_35_0));
+    }
+
+    @Test
+    public void rejectsMalformedEntries() throws IOException {
+        assertMalformed(":2", "T\t33.0\t\tcom.example.Thing", "T\t33.0\tcom.example.Thing");
+        assertMalformed(":1", "X\t33.0\t\tcom.example.Thing");
+        assertMalformed(":1", "TT\t33.0\t\tcom.example.Thing");
+        assertMalformed(":1", "T\t33.0\t\tcom.example.Thing\textra");
+        assertMalformed(":3", "", "# Comment", "T\t99.9\t\tcom.example.Thing");
+        assertMalformed(":1", "T\tNO_SUCH_ALIAS\t\tcom.example.Thing");
+    }
+
+    private void assertMalformed(String location, String... lines) throws IOException {
+        final File catalog = catalog(lines);
+        try {
+            load(catalog);
+            fail("Malformed catalog accepted: " + Arrays.toString(lines));
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith(location));
+        }
+    }
+
+    /**
+     * @return a class path root holding a catalog resource of the given lines
+     */
+    private File catalog(String... lines) throws IOException {
+        final File root = folder.newFolder();
+        final File resource = new File(root, SupportedCatalog.RESOURCE_NAME);
+        Files.createDirectories(resource.getParentFile().toPath());
+        Files.write(resource.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return root;
+    }
+
+    private static SupportedCatalog load(File... roots) throws IOException {
+        final URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toURI().toURL();
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+            return SupportedCatalog.load(classLoader);
+        }
+    }
+}
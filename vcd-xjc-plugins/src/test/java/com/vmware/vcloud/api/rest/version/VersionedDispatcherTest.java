@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.api.rest.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.vmware.vcloud.api.annotation.Supported;
+import com.vmware.vcloud.api.rest.version.ApiVersion.Alias;
+
+/**
+ * Checks how {@link VersionedDispatcher} compiles ranges and routes versions, including gaps,
+ * unbounded ranges and ranges given as {@link Supported} annotations.
+ */
+public class VersionedDispatcherTest {
+
+    private static final ApiVersion LAST = ApiVersion.fromOrdinal(ApiVersion.versionCount() - 1);
+
+    @Supported(addedIn = "MIN_SUPPORTED", removedIn = "34.0")
+    private static Object aliasedLowerBound;
+
+    @Supported(addedIn = "MAX_SUPPORTED")
+    private static Object aliasedUnbounded;
+
+    @Test
+    public void routesToRangeIncludingVersion() {
+        final VersionedDispatcher<String> dispatcher = VersionedDispatcher.<String>builder()
+                .add(ApiVersion.VERSION_33_0, ApiVersion.VERSION_35_0, "legacy")
+                .add(ApiVersion.VERSION_35_0, ApiVersion.VERSION_MAX, "current")
+                .build();
+
+        assertEquals("legacy", dispatcher.get(ApiVersion.VERSION_33_0));
+        assertEquals("legacy", dispatcher.get(ApiVersion.VERSION_34_0));
+        assertEquals("current", dispatcher.get(ApiVersion.VERSION_35_0));
+        assertEquals("current", dispatcher.get(LAST));
+    }
+
+    @Test
+    public void returnsNullInGaps() {
+        final VersionedDispatcher<String> dispatcher = VersionedDispatcher.<String>builder()
+                .add(ApiVersion.VERSION_33_0, ApiVersion.VERSION_34_0, "legacy")
+                .add(ApiVersion.VERSION_35_0, ApiVersion.VERSION_35_2, "current")
+                .build();
+
+        assertNull(dispatcher.get(ApiVersion.fromOrdinal(0)));
+        assertNull(dispatcher.get(ApiVersion.fromOrdinal(ApiVersion.VERSION_33_0.ordinal() - 1)));
+        assertEquals("legacy", dispatcher.get(ApiVersion.VERSION_33_0));
+        assertNull(dispatcher.get(ApiVersion.VERSION_34_0));
+        assertEquals("current", dispatcher.get(ApiVersion.VERSION_35_0));
+        assertNull(dispatcher.get(ApiVersion.VERSION_35_2));
+        assertNull(VersionedDispatcher.<String>builder().build().get(ApiVersion.VERSION_35_0));
+    }
+
+    @Test
+    public void clampsVersionMaxUpperBound() {
+        final VersionedDispatcher<String> dispatcher = VersionedDispatcher.<String>builder()
+                .add(LAST, ApiVersion.VERSION_MAX, "latest")
+                .build();
+
+        assertEquals("latest", dispatcher.get(LAST));
+        assertNull(dispatcher.get(ApiVersion.fromOrdinal(LAST.ordinal() - 1)));
+        assertNull(dispatcher.get(ApiVersion.VERSION_MAX));
+    }
+
+    @Test
+    public void resolvesAliasesOfSupportedRanges() throws NoSuchFieldException {
+        final VersionedDispatcher<String> dispatcher = VersionedDispatcher.<String>builder()
+                .add(supported("aliasedLowerBound"), "lower")
+                .add(supported("aliasedUnbounded"), "unbounded")
+                .build();
+
+        final ApiVersion min = Alias.MIN_SUPPORTED.getMapping();
+        final ApiVersion max = Alias.MAX_SUPPORTED.getMapping();
+        assertNull(dispatcher.get(ApiVersion.fromOrdinal(min.ordinal() - 1)));
+        assertEquals("lower", dispatcher.get(min));
+        assertEquals("lower", dispatcher.get(ApiVersion.VERSION_33_0));
+        assertNull(dispatcher.get(ApiVersion.VERSION_34_0));
+        assertNull(dispatcher.get(ApiVersion.fromOrdinal(max.ordinal() - 1)));
+        assertEquals("unbounded", dispatcher.get(max));
+        assertEquals("unbounded", dispatcher.get(LAST));
+        assertNull(dispatcher.get(ApiVersion.VERSION_MAX));
+    }
+
+    @Test
+    public void rejectsOverlappingRanges() {
+        final VersionedDispatcher.Builder<String> builder = VersionedDispatcher.<String>builder()
+                .add(ApiVersion.VERSION_33_0, ApiVersion.VERSION_35_0, "legacy")
+                .add(ApiVersion.VERSION_34_0, ApiVersion.VERSION_MAX, "current");
+        try {
+            builder.build();
+            fail("Overlapping ranges accepted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("overlaps"));
+            assertTrue(e.getMessage(), e.getMessage().endsWith(ApiVersion.VERSION_34_0.toString()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyRange() {
+        VersionedDispatcher.<String>builder().add(ApiVersion.VERSION_34_0, ApiVersion.VERSION_34_0, "empty");
+    }
+
+    private static Supported supported(String field) throws NoSuchFieldException {
+        return VersionedDispatcherTest.class.getDeclaredField(field).getAnnotation(Supported.class);
+    }
+}
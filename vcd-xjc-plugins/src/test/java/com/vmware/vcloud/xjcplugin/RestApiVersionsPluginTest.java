@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * vcd-xjc-plugins :: Custom plugins for XML to Java Compilation
+ * %%
+ * Copyright (C) 2022 VMware, Inc.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package com.vmware.vcloud.xjcplugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.tools.xjc.Driver;
+import com.vmware.vcloud.api.rest.version.ApiVersion;
+import com.vmware.vcloud.api.rest.version.Supported;
+import com.vmware.vcloud.api.rest.version.SupportedCatalog;
+import com.vmware.vcloud.api.rest.version.SupportedCatalog.Kind;
+
+/**
+ * Runs XJC with {@link RestApiVersionsPlugin} over a small schema and checks what it generates.
+ */
+public class RestApiVersionsPluginTest {
+
+    private static final String SCHEMA = "versions.xsd";
+    private static final String PACKAGE = "com.example.versions";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emitsSupportedCatalog() throws Exception {
+        final File out = generate("-genSupportedCatalog");
+
+        final List<String> catalog = Files.readAllLines(
+                new File(out, SupportedCatalog.RESOURCE_NAME).toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+                "T\t33.0\t\t" + PACKAGE + ".ThingType",
+                "P\t33.0\t35.0\t" + PACKAGE + ".ThingType#name",
+                "P\t1.5\t\t" + PACKAGE + ".ThingType#color",
+                "T\t1.5\t\t" + PACKAGE + ".ColorType",
+                "C\t1.5\t\t" + PACKAGE + ".ColorType#RED",
+                "C\t34.0\t\t" + PACKAGE + ".ColorType#BLUE",
+                "C\tMAX_SUPPORTED\tFUTURE\t" + PACKAGE + ".ColorType#GREEN",
+                "C\t1.5\t\t" + PACKAGE + ".ColorType#WHITE"), catalog);
+
+        final SupportedCatalog loaded;
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { out.toURI().toURL() }, null)) {
+            loaded = SupportedCatalog.load(classLoader);
+        }
+        assertEquals(Arrays.asList(PACKAGE + ".ColorType#RED", PACKAGE + ".ColorType#BLUE",
+                PACKAGE + ".ColorType#WHITE"), loaded.getSupported(Kind.ENUM_CONSTANT, ApiVersion.VERSION_34_0));
+        assertFalse(loaded.isSupported(Kind.PROPERTY, PACKAGE + ".ThingType#name", ApiVersion.VERSION_35_0));
+    }
+
+    @Test
+    public void omitsSupportedCatalogByDefault() throws Exception {
+        final File out = generate();
+        assertTrue(new File(out, PACKAGE.replace('.', '/') + "/ThingType.java").isFile());
+        assertFalse(new File(out, SupportedCatalog.RESOURCE_NAME).exists());
+    }
+
+    @Test
+    public void resolvesEnumVersionsThroughConstants() throws Exception {
+        final File out = generate("-enumNameVersionHolder");
+        final String source = new String(Files.readAllBytes(
+                new File(out, PACKAGE.replace('.', '/') + "/ColorType.java").toPath()), StandardCharsets.UTF_8);
+
+        assertFalse(source, source.contains("ApiVersion.fromValue("));
+        assertTrue(source, source.contains("return ApiVersion.VERSION_34_0;"));
+        assertTrue(source, source.contains("return ApiVersion.Alias.MAX_SUPPORTED.getMapping();"));
+        assertTrue(source, source.contains("return ApiVersion.Alias.FUTURE.getMapping();"));
+        assertTrue(source, source.contains("return ApiVersion.VERSION_MAX;"));
+        // The default version of the schema is deprecated
+        assertTrue(source, source.contains("@SuppressWarnings(\"deprecation\")\n    public ApiVersion getAddedIn()"));
+
+        final Class<?> colorType = compile(out, PACKAGE + ".ColorType");
+        final Supported blue = (Supported) colorType.getMethod("fromValue", String.class).invoke(null, "blue");
+        assertSame(ApiVersion.VERSION_34_0, blue.getAddedIn());
+        assertSame(ApiVersion.VERSION_MAX, blue.getRemovedIn());
+        final Supported green = (Supported) colorType.getMethod("fromValue", String.class).invoke(null, "green");
+        assertSame(ApiVersion.Alias.MAX_SUPPORTED.getMapping(), green.getAddedIn());
+        assertSame(ApiVersion.VERSION_MAX, green.getRemovedIn());
+    }
+
+    /**
+     * Compiles the sources generated in the given directory, and loads one of the classes.
+     */
+    private Class<?> compile(File out, String className) throws Exception {
+        final List<String> args = new ArrayList<>(Arrays.asList("-nowarn", "-proc:none",
+                "-classpath", System.getProperty("java.class.path"), "-d", out.getPath()));
+        try (Stream<Path> sources = Files.walk(out.toPath())) {
+            sources.map(Path::toString).filter(path -> path.endsWith(".java")).forEach(args::add);
+        }
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+        assertEquals(log.toString(StandardCharsets.UTF_8.name()), 0,
+                ToolProvider.getSystemJavaCompiler().run(null, log, log, args.toArray(new String[args.size()])));
+
+        final URLClassLoader classLoader = new URLClassLoader(new URL[] { out.toURI().toURL() },
+                RestApiVersionsPluginTest.class.getClassLoader());
+        return Class.forName(className, true, classLoader);
+    }
+
+    /**
+     * Runs XJC with the plugin and the given plugin options.
+     *
+     * @return the directory the sources and resources were generated in
+     */
+    private File generate(String... pluginOptions) throws Exception {
+        final File out = folder.newFolder();
+        final File schema = new File(RestApiVersionsPluginTest.class.getResource(SCHEMA).toURI());
+
+        final String[] common = { "-extension", "-npa", "-no-header", "-d", out.getPath(), "-p", PACKAGE,
+                "-Xrest-api", "-skipMediaTypeGen" };
+        final String[] args = Arrays.copyOf(common, common.length + pluginOptions.length + 1);
+        System.arraycopy(pluginOptions, 0, args, common.length, pluginOptions.length);
+        args[args.length - 1] = schema.getPath();
+
+        final ByteArrayOutputStream log = new ByteArrayOutputStream();
+        try (PrintStream status = new PrintStream(log, true, StandardCharsets.UTF_8.name())) {
+            assertEquals(log.toString(StandardCharsets.UTF_8.name()), 0, Driver.run(args, status, status));
+        }
+        return out;
+    }
+}